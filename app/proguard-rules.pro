@@ -2,9 +2,30 @@
 # You can control the set of applied configuration files using the
 # proguardFiles setting in build.gradle.
 
+# =========================================================
+# ADOBE EXPERIENCE PLATFORM MOBILE SDK
+# Extensions are registered by Class and constructed reflectively through
+# their (ExtensionApi) constructor, and events are routed by type/source
+# strings, so the SDK is kept whole. The app's own code is still shrunk
+# and optimized; only com.adobe.marketing.mobile.** is exempt.
+# =========================================================
+
 # Keep Adobe SDK classes
 -keep class com.adobe.marketing.mobile.** { *; }
 
+# Extensions outside the SDK package (e.g. a custom one) need the same treatment
+-keep class * extends com.adobe.marketing.mobile.Extension {
+    <init>(com.adobe.marketing.mobile.ExtensionApi);
+}
+
 # If you use Gson for JSON parsing (Adobe SDK may use it internally)
 -keepattributes Signature
 -keepattributes *Annotation*
+
+# =========================================================
+# APP
+# Readable stack traces from minified release builds: keep line numbers,
+# hide the original file names.
+# =========================================================
+-keepattributes SourceFile,LineNumberTable
+-renamesourcefileattribute SourceFile
@@ -0,0 +1,174 @@
+package com.example.aepvalidation;
+
+import android.util.Log;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * AppLog - Level-gated logging facade for the app's Logcat output
+ *
+ * Every call checks the runtime level first, so a disabled message costs a
+ * field read: strings are only concatenated, payload maps only stringified,
+ * and suppliers only invoked when the level is on. Use the
+ * {@code (prefix, value)} overloads for one-value messages and a
+ * {@link Supplier} for anything more expensive.
+ *
+ * An optional {@link TraceRing} records compact binary events regardless of
+ * the Logcat level and can be dumped on demand.
+ */
+public final class AppLog {
+
+    public static final String TAG = "AEPValidationApp";
+
+    private static final String SEPARATOR = "========================================";
+
+    /** Level that disables all Logcat output */
+    public static final int NONE = Log.ASSERT + 1;
+
+    private static volatile int level = Log.DEBUG;
+    private static volatile TraceRing trace;
+
+    private AppLog() {
+    }
+
+    /**
+     * Set the minimum level written to Logcat (android.util.Log.VERBOSE..ERROR, or NONE)
+     */
+    public static void setLevel(int minLevel) {
+        level = minLevel;
+    }
+
+    public static int getLevel() {
+        return level;
+    }
+
+    /**
+     * Parse a level name such as "DEBUG" or "WARN"; unknown names map to DEBUG
+     */
+    public static int parseLevel(String name) {
+        switch (name == null ? "" : name.trim().toUpperCase(Locale.US)) {
+            case "VERBOSE":
+                return Log.VERBOSE;
+            case "INFO":
+                return Log.INFO;
+            case "WARN":
+            case "WARNING":
+                return Log.WARN;
+            case "ERROR":
+                return Log.ERROR;
+            case "NONE":
+            case "OFF":
+                return NONE;
+            case "DEBUG":
+            default:
+                return Log.DEBUG;
+        }
+    }
+
+    public static boolean isDebugEnabled() {
+        return level <= Log.DEBUG;
+    }
+
+    // =========================================================
+    // LOGCAT
+    // =========================================================
+
+    public static void d(String message) {
+        if (level <= Log.DEBUG) {
+            Log.d(TAG, message);
+        }
+    }
+
+    public static void d(String prefix, Object value) {
+        if (level <= Log.DEBUG) {
+            Log.d(TAG, prefix + value);
+        }
+    }
+
+    public static void d(Supplier<String> message) {
+        if (level <= Log.DEBUG) {
+            Log.d(TAG, message.get());
+        }
+    }
+
+    /**
+     * Debug message framed by separator lines, for the start of an action
+     */
+    public static void banner(String message) {
+        if (level <= Log.DEBUG) {
+            Log.d(TAG, SEPARATOR);
+            Log.d(TAG, message);
+            Log.d(TAG, SEPARATOR);
+        }
+    }
+
+    /**
+     * Two-line debug banner
+     */
+    public static void banner(String line1, String line2) {
+        if (level <= Log.DEBUG) {
+            Log.d(TAG, SEPARATOR);
+            Log.d(TAG, line1);
+            Log.d(TAG, line2);
+            Log.d(TAG, SEPARATOR);
+        }
+    }
+
+    public static void i(String message) {
+        if (level <= Log.INFO) {
+            Log.i(TAG, message);
+        }
+    }
+
+    public static void w(String message) {
+        if (level <= Log.WARN) {
+            Log.w(TAG, message);
+        }
+    }
+
+    public static void e(String message) {
+        if (level <= Log.ERROR) {
+            Log.e(TAG, message);
+        }
+    }
+
+    public static void e(String message, Throwable error) {
+        if (level <= Log.ERROR) {
+            Log.e(TAG, message, error);
+        }
+    }
+
+    /**
+     * Error message framed by separator lines
+     */
+    public static void errorBanner(String message) {
+        if (level <= Log.ERROR) {
+            Log.e(TAG, SEPARATOR);
+            Log.e(TAG, message);
+            Log.e(TAG, SEPARATOR);
+        }
+    }
+
+    // =========================================================
+    // BINARY TRACE
+    // =========================================================
+
+    /**
+     * Enable the trace ring, or disable it with null
+     */
+    public static void setTrace(TraceRing ring) {
+        trace = ring;
+    }
+
+    public static TraceRing getTrace() {
+        return trace;
+    }
+
+    public static void trace(int code, long arg) {
+        TraceRing ring = trace;
+        if (ring != null) {
+            ring.record(code, arg);
+        }
+    }
+}
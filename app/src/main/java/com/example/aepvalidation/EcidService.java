@@ -0,0 +1,181 @@
+package com.example.aepvalidation;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EcidService - Cached, single-flight ECID lookups
+ *
+ * Keeps the last ECID from each identity extension, as answered by an
+ * {@link IdentityClient}, for a configurable TTL.
+ * Callers that arrive while a lookup is already running join it instead of
+ * starting another trip through the SDK event hub. The cache is dropped
+ * whenever either identity extension is asked to reset, because a reset
+ * generates a new ECID.
+ */
+public final class EcidService {
+
+    /**
+     * Which extension answers the lookup
+     */
+    public enum Source {
+        IDENTITY("Identity"),
+        EDGE_IDENTITY("Edge Identity");
+
+        public final String label;
+
+        Source(String label) {
+            this.label = label;
+        }
+    }
+
+    public interface Callback {
+        void onEcid(String ecid, boolean fromCache);
+
+        void onError(String error);
+    }
+
+    private static final class Entry {
+        String ecid;
+        long fetchedAtNanos;
+        boolean inFlight;
+        long requestStartNanos;
+        int generation; // bumped on invalidate so a stale in-flight answer is not cached
+        int requestGeneration;
+        final List<Callback> waiters = new ArrayList<>();
+        final LatencyHistogram sdkLatency = new LatencyHistogram();
+    }
+
+    private final IdentityClient client;
+    private final long ttlNanos;
+    private final Map<Source, Entry> entries = new EnumMap<>(Source.class);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public EcidService(IdentityClient client, long ttlMillis) {
+        this.client = client;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        for (Source source : Source.values()) {
+            entries.put(source, new Entry());
+        }
+    }
+
+    /**
+     * Drop cached ECIDs whenever an identity reset is requested. Call once the SDK is ready.
+     */
+    public void watchForResets() {
+        client.addResetListener(this::invalidate);
+    }
+
+    /**
+     * Get the ECID from the cache, or from the SDK if the cache is stale
+     * The callback runs on the caller's thread for a hit, otherwise on an SDK thread
+     */
+    public void get(Source source, Callback callback) {
+        Entry entry = entries.get(source);
+        String cached = null;
+        boolean startRequest = false;
+
+        synchronized (entry) {
+            if (entry.ecid != null && System.nanoTime() - entry.fetchedAtNanos < ttlNanos) {
+                cached = entry.ecid;
+            } else {
+                entry.waiters.add(callback);
+                if (!entry.inFlight) {
+                    entry.inFlight = true;
+                    entry.requestStartNanos = System.nanoTime();
+                    entry.requestGeneration = entry.generation;
+                    startRequest = true;
+                }
+            }
+        }
+
+        if (cached != null) {
+            hits.incrementAndGet();
+            callback.onEcid(cached, true);
+            return;
+        }
+        if (!startRequest) {
+            coalesced.incrementAndGet();
+            return;
+        }
+
+        misses.incrementAndGet();
+        AppLog.trace(TraceRing.ECID_LOOKUP, source.ordinal());
+        try {
+            client.getExperienceCloudId(source, new IdentityClient.Callback() {
+                @Override
+                public void onEcid(String ecid) {
+                    complete(entry, ecid, null);
+                }
+
+                @Override
+                public void onError(String error) {
+                    complete(entry, null, error);
+                }
+            });
+        } catch (Exception e) {
+            complete(entry, null, e.getMessage());
+        }
+    }
+
+    /**
+     * Forget all cached ECIDs; in-flight lookups still complete for their callers
+     */
+    public void invalidate(String reason) {
+        for (Entry entry : entries.values()) {
+            synchronized (entry) {
+                entry.ecid = null;
+                entry.generation++;
+            }
+        }
+        invalidations.incrementAndGet();
+        AppLog.d("ECID cache invalidated: ", reason);
+    }
+
+    public String format() {
+        StringBuilder sb = new StringBuilder(String.format(Locale.US,
+            "Cache: %d hits, %d SDK lookups, %d coalesced, %d invalidations",
+            hits.get(), misses.get(), coalesced.get(), invalidations.get()));
+        for (Map.Entry<Source, Entry> e : entries.entrySet()) {
+            LatencyHistogram latency = e.getValue().sdkLatency;
+            if (latency.count() > 0) {
+                sb.append(String.format(Locale.US, "\n%s lookup: p50 %.1f ms, max %.1f ms",
+                    e.getKey().label, latency.percentileNanos(50) / 1e6, latency.maxNanos() / 1e6));
+            }
+        }
+        return sb.toString();
+    }
+
+    private void complete(Entry entry, String ecid, String error) {
+        List<Callback> waiters;
+        synchronized (entry) {
+            long now = System.nanoTime();
+            entry.sdkLatency.recordNanos(now - entry.requestStartNanos);
+            AppLog.trace(TraceRing.ECID_RESULT, (now - entry.requestStartNanos) / 1000);
+            // Cache only real ECIDs; an empty answer usually means the SDK is not configured yet
+            if (error == null && ecid != null && !ecid.isEmpty()
+                && entry.requestGeneration == entry.generation) {
+                entry.ecid = ecid;
+                entry.fetchedAtNanos = now;
+            }
+            entry.inFlight = false;
+            waiters = new ArrayList<>(entry.waiters);
+            entry.waiters.clear();
+        }
+        for (Callback waiter : waiters) {
+            if (error != null) {
+                waiter.onError(error);
+            } else {
+                waiter.onEcid(ecid, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.aepvalidation;
+
+import com.adobe.marketing.mobile.ExperienceEvent;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EdgeClient - The Edge network as the app sees it: send an event, get response handles back
+ *
+ * {@link SdkEdgeClient} forwards to the Adobe SDK. Everything above this
+ * interface (gate, journal, pre-init buffer, response processing) depends only
+ * on it, so the send pipeline runs on the JVM against an in-process fake.
+ */
+public interface EdgeClient {
+
+    /**
+     * Receives the response handles for one sent event, on a client thread,
+     * or the reason it was never sent; exactly one of the two is called
+     */
+    interface Callback {
+        void onComplete(List<Handle> handles);
+
+        /**
+         * The event never reached Edge, e.g. the SDK failed to initialize
+         * while it was buffered
+         */
+        void onFailed(Throwable error);
+    }
+
+    /**
+     * One response handle: a type such as "state:store" and its payload items
+     */
+    final class Handle {
+        private final String type;
+        private final List<Map<String, Object>> payload;
+
+        public Handle(String type, List<Map<String, Object>> payload) {
+            this.type = type;
+            this.payload = payload;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public List<Map<String, Object>> getPayload() {
+            return payload;
+        }
+    }
+
+    /**
+     * Send one event; the callback runs once its response arrives
+     */
+    void sendEvent(ExperienceEvent event, Callback callback);
+}
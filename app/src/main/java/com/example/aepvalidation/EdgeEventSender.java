@@ -0,0 +1,295 @@
+package com.example.aepvalidation;
+
+import com.adobe.marketing.mobile.ExperienceEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * EdgeEventSender - Single entry point for Edge sends that respects SDK readiness
+ *
+ * Events go to an {@link EdgeClient}: the Adobe SDK in the app, a fake in
+ * JVM tests. Until the readiness future completes, events are held in a
+ * bounded FIFO buffer. When it completes they are handed over in one batch, in
+ * submission order, and every later event goes straight to Edge. Each event
+ * is sent exactly once; if the buffer is full the event is rejected and the
+ * caller is told, so nothing is dropped silently. If the readiness future
+ * fails, buffered events get {@link EdgeClient.Callback#onFailed} and later
+ * ones are rejected.
+ *
+ * Once an {@link EventJournal} is attached, every event is journaled before
+ * it is sent and acknowledged in the journal when its onComplete fires, or
+ * at once if it is rejected, so only events that may never have reached
+ * Edge are replayed.
+ *
+ * Once an {@link EventGate} is attached, {@link #send} drops events that are
+ * over their type's rate limit or repeat a recent payload, before they are
+ * journaled or buffered. Load runs and trace replay, which flood on purpose,
+ * use {@link #sendUngated}.
+ *
+ * Once an {@link XdmValidator} is attached, {@link #send} also drops events
+ * whose XDM does not match the schema, before the gate sees them, so an
+ * invalid event never uses up a rate-limit token.
+ */
+public final class EdgeEventSender {
+
+    public static final int DEFAULT_BUFFER_CAPACITY = 500;
+
+    public enum Result { SENT, BUFFERED, REJECTED, THROTTLED, DUPLICATE, INVALID }
+
+    private static final class PendingEvent {
+        final ExperienceEvent event;
+        final EdgeClient.Callback callback;
+
+        PendingEvent(ExperienceEvent event, EdgeClient.Callback callback) {
+            this.event = event;
+            this.callback = callback;
+        }
+    }
+
+    private final EdgeClient client;
+    private final int capacity;
+    private final ArrayDeque<PendingEvent> pending;
+    private final Object lock = new Object();
+    private volatile boolean ready;
+    private volatile boolean failed;
+    private volatile EventJournal journal;
+    private volatile EventGate gate;
+    private volatile XdmValidator validator;
+    private volatile PayloadAnalyzer analyzer;
+
+    public EdgeEventSender(EdgeClient client, CompletableFuture<Void> readiness, int capacity) {
+        this.client = client;
+        this.capacity = capacity;
+        this.pending = new ArrayDeque<>(capacity);
+        readiness.whenComplete((ignored, error) -> {
+            if (error == null) {
+                flush();
+            } else {
+                fail(error);
+            }
+        });
+    }
+
+    /**
+     * Start journaling events sent from now on
+     */
+    public void attachJournal(EventJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Check events passed to {@link #send} against a gate from now on, or stop with null
+     */
+    public void setGate(EventGate gate) {
+        this.gate = gate;
+    }
+
+    public EventGate getGate() {
+        return gate;
+    }
+
+    /**
+     * Validate events passed to {@link #send} against a schema from now on, or stop with null
+     */
+    public void setValidator(XdmValidator validator) {
+        this.validator = validator;
+    }
+
+    public XdmValidator getValidator() {
+        return validator;
+    }
+
+    /**
+     * Measure every event handed to Edge from now on, including load runs
+     * and replay, or stop with null
+     */
+    public void setAnalyzer(PayloadAnalyzer analyzer) {
+        this.analyzer = analyzer;
+    }
+
+    public PayloadAnalyzer getAnalyzer() {
+        return analyzer;
+    }
+
+    /**
+     * Send an event now if the SDK is ready, otherwise buffer it,
+     * unless validation or the gate drops it
+     */
+    public Result send(ExperienceEvent event, EdgeClient.Callback callback) {
+        return send(event, callback, null);
+    }
+
+    /**
+     * As {@link #send(ExperienceEvent, EdgeClient.Callback)}, handing this
+     * event's validation problems to onInvalid, on the calling thread,
+     * before {@link Result#INVALID} is returned
+     */
+    public Result send(ExperienceEvent event, EdgeClient.Callback callback, Consumer<List<String>> onInvalid) {
+        XdmValidator v = validator;
+        if (v != null) {
+            List<String> errors = v.validate(event.getXdmSchema());
+            if (!errors.isEmpty()) {
+                AppLog.w("Event failed XDM validation: " + String.join("; ", errors));
+                AppLog.trace(TraceRing.EVENT_INVALID, 0);
+                if (onInvalid != null) {
+                    onInvalid.accept(errors);
+                }
+                return Result.INVALID;
+            }
+        }
+        EventGate g = gate;
+        if (g != null) {
+            EventGate.Decision decision = g.check(event.getXdmSchema(), event.getData());
+            if (decision == EventGate.Decision.THROTTLED) {
+                AppLog.trace(TraceRing.EVENT_THROTTLED, 0);
+                return Result.THROTTLED;
+            } else if (decision == EventGate.Decision.DUPLICATE) {
+                AppLog.trace(TraceRing.EVENT_DUPLICATE, 0);
+                return Result.DUPLICATE;
+            }
+        }
+        return sendUngated(event, callback);
+    }
+
+    /**
+     * Send without consulting the gate, for deliberate bursts (load runs, replay)
+     */
+    public Result sendUngated(ExperienceEvent event, EdgeClient.Callback callback) {
+        EventJournal j = journal;
+        long handle = -1;
+        if (j != null) {
+            handle = j.append(event.getXdmSchema(), event.getData());
+            if (handle >= 0) {
+                long record = handle;
+                // The only per-event allocation on this path: the record
+                // handle rides with the callback until Edge answers
+                EdgeClient.Callback original = callback;
+                callback = new EdgeClient.Callback() {
+                    @Override
+                    public void onComplete(List<EdgeClient.Handle> handles) {
+                        j.markCompleted(record);
+                        original.onComplete(handles);
+                    }
+
+                    @Override
+                    public void onFailed(Throwable error) {
+                        // Not acknowledged: the next start replays it
+                        original.onFailed(error);
+                    }
+                };
+            }
+        }
+        Result result = dispatch(event, callback);
+        if (result == Result.REJECTED && handle >= 0) {
+            // The caller already knows it was not sent; do not replay it next launch
+            j.markCompleted(handle);
+        }
+        PayloadAnalyzer a = analyzer;
+        // Rejected events never reach Edge, so they are not measured
+        if (a != null && (result == Result.SENT || result == Result.BUFFERED)) {
+            a.submit(event.getXdmSchema(), event.getData());
+        }
+        return result;
+    }
+
+    /**
+     * Send an event that is already journaled, e.g. during replay
+     */
+    Result resend(ExperienceEvent event, EdgeClient.Callback callback) {
+        return dispatch(event, callback);
+    }
+
+    private Result dispatch(ExperienceEvent event, EdgeClient.Callback callback) {
+        if (ready) {
+            traceSend(event);
+            client.sendEvent(event, callback);
+            return Result.SENT;
+        }
+        synchronized (lock) {
+            // Re-check under the lock: flush() sets ready only after draining,
+            // so an event sent here can never overtake a buffered one
+            if (ready) {
+                traceSend(event);
+                client.sendEvent(event, callback);
+                return Result.SENT;
+            }
+            if (failed) {
+                AppLog.w("SDK failed to initialize, event rejected");
+                AppLog.trace(TraceRing.EVENT_REJECTED, 0);
+                return Result.REJECTED;
+            }
+            if (pending.size() >= capacity) {
+                AppLog.w("Pre-init buffer full (" + capacity + "), event rejected");
+                AppLog.trace(TraceRing.EVENT_REJECTED, pending.size());
+                return Result.REJECTED;
+            }
+            pending.addLast(new PendingEvent(event, callback));
+            AppLog.trace(TraceRing.EVENT_BUFFERED, pending.size());
+            return Result.BUFFERED;
+        }
+    }
+
+    private static void traceSend(ExperienceEvent event) {
+        if (AppLog.getTrace() != null) {
+            Map<String, Object> xdm = event.getXdmSchema();
+            Object type = xdm != null ? xdm.get("eventType") : null;
+            AppLog.trace(TraceRing.EVENT_SEND,
+                TraceRing.typeCode(type instanceof String ? (String) type : null));
+        }
+    }
+
+    /**
+     * Number of events waiting for the SDK to become ready
+     */
+    public int pendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * True once the readiness future has failed; every send is rejected from then on
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    private void flush() {
+        synchronized (lock) {
+            int count = pending.size();
+            PendingEvent next;
+            while ((next = pending.pollFirst()) != null) {
+                traceSend(next.event);
+                client.sendEvent(next.event, next.callback);
+            }
+            ready = true;
+            if (count > 0) {
+                AppLog.d(() -> "Flushed " + count + " event(s) buffered before SDK was ready");
+            }
+        }
+    }
+
+    private void fail(Throwable error) {
+        List<PendingEvent> stranded;
+        synchronized (lock) {
+            failed = true;
+            stranded = new ArrayList<>(pending);
+            pending.clear();
+        }
+        AppLog.e("SDK failed to initialize, " + stranded.size()
+            + " buffered event(s) not sent", error);
+        // Outside the lock: callbacks may send again, which is now rejected
+        for (PendingEvent p : stranded) {
+            p.callback.onFailed(error);
+        }
+    }
+}
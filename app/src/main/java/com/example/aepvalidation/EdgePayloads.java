@@ -0,0 +1,130 @@
+package com.example.aepvalidation;
+
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * EdgePayloads - Precompiled templates for the XDM and custom data maps sent to Edge
+ *
+ * Shared by the single-tap buttons in {@link MainActivity} and by
+ * {@link LoadGenerator}, so load runs send exactly the same payload shapes.
+ *
+ * The parts of a payload that never change (the commerce skeleton and the
+ * app/user/action custom data) are built once as unmodifiable maps and shared
+ * by every event. Only the varying fields (timestamp, SKU, quantity, price)
+ * go into fresh maps per event. The top-level map must stay per-event because
+ * events can sit in the pre-init buffer or the journal after they are built.
+ * Sharing the nested maps is safe because the SDK copies event data when the
+ * event is dispatched and never mutates the caller's maps.
+ */
+public final class EdgePayloads {
+
+    public static final String EVENT_TYPE_VALIDATION = "mobile.validation";
+    public static final String EVENT_TYPE_PRODUCT_VIEWS = "commerce.productViews";
+
+    public static final String DEFAULT_SKU = "PROD-12345";
+    public static final String DEFAULT_PRODUCT_NAME = "Test Product";
+    public static final int DEFAULT_QUANTITY = 1;
+    public static final double DEFAULT_PRICE_TOTAL = 99.99;
+
+    // Commerce data (XDM standard): {"productListViews": {"value": 1}}
+    private static final Map<String, Object> PRODUCT_LIST_VIEWS_COMMERCE =
+        Collections.singletonMap("productListViews",
+            Collections.<String, Object>singletonMap("value", 1));
+
+    // Custom (non-XDM) data, identical for every commerce event
+    private static final Map<String, Object> COMMERCE_CUSTOM_DATA = buildCommerceCustomData();
+
+    private EdgePayloads() {
+    }
+
+    /**
+     * Basic validation event: eventType and timestamp only
+     */
+    public static Map<String, Object> basicXdm(String timestamp) {
+        Map<String, Object> xdmData = new HashMap<>(4);
+
+        // Required: eventType
+        xdmData.put("eventType", EVENT_TYPE_VALIDATION);
+
+        // Required: timestamp in ISO 8601 format
+        xdmData.put("timestamp", timestamp);
+        return xdmData;
+    }
+
+    /**
+     * Commerce product view event for the default test product
+     */
+    public static Map<String, Object> commerceXdm(String timestamp) {
+        return commerceXdm(timestamp, DEFAULT_SKU, DEFAULT_PRODUCT_NAME,
+            DEFAULT_QUANTITY, DEFAULT_PRICE_TOTAL);
+    }
+
+    /**
+     * Commerce product view event with a single product list item
+     */
+    public static Map<String, Object> commerceXdm(String timestamp, String sku, String name,
+                                                  int quantity, double priceTotal) {
+        // Product list items (XDM standard): the only per-event nested map
+        Map<String, Object> productItem = new HashMap<>(8);
+        productItem.put("SKU", sku);
+        productItem.put("name", name);
+        productItem.put("quantity", quantity);
+        productItem.put("priceTotal", priceTotal);
+
+        Map<String, Object> xdmData = new HashMap<>(8);
+
+        // Required fields
+        xdmData.put("eventType", EVENT_TYPE_PRODUCT_VIEWS);
+        xdmData.put("timestamp", timestamp);
+
+        xdmData.put("commerce", PRODUCT_LIST_VIEWS_COMMERCE);
+        xdmData.put("productListItems", Collections.singletonList(productItem));
+        return xdmData;
+    }
+
+    /**
+     * Custom (non-XDM) data sent alongside the commerce event
+     * The returned map is shared and unmodifiable
+     */
+    public static Map<String, Object> commerceCustomData() {
+        return COMMERCE_CUSTOM_DATA;
+    }
+
+    /**
+     * Get current timestamp in ISO 8601 format for XDM
+     */
+    public static String currentTimestamp() {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return sdf.format(new Date());
+    }
+
+    private static Map<String, Object> buildCommerceCustomData() {
+        Map<String, Object> customData = new HashMap<>();
+
+        // App info
+        Map<String, Object> appInfo = new HashMap<>();
+        appInfo.put("name", "AEPValidationApp");
+        appInfo.put("version", "1.0");
+        customData.put("app", Collections.unmodifiableMap(appInfo));
+
+        // User info (dummy data for testing)
+        Map<String, Object> userInfo = new HashMap<>();
+        userInfo.put("testUserId", "U12345");
+        userInfo.put("segment", "dummy_segment");
+        customData.put("user", Collections.unmodifiableMap(userInfo));
+
+        // Action info
+        Map<String, Object> actionInfo = new HashMap<>();
+        actionInfo.put("screen", "Main");
+        actionInfo.put("button", "Send Edge Event with Data");
+        customData.put("action", Collections.unmodifiableMap(actionInfo));
+        return Collections.unmodifiableMap(customData);
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.aepvalidation;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EdgeResponseProcessor - Summarizes Edge response handles off the main thread
+ *
+ * EdgeClient.Callback.onComplete hands its handles to {@link #submit}, which returns
+ * immediately. A single background thread walks each handle's payload,
+ * measures its serialized size with {@link JsonByteWriter} into a reused
+ * buffer (no payload toString) and picks out a few key fields. Results are
+ * collected for {@link #BATCH_WINDOW_MS} and published to the listener as one
+ * compact {@link Batch}, so a burst of responses costs the UI thread a single
+ * update instead of one per handle. Each batch is also written to the
+ * {@link ResponseStore} in one transaction before it is published.
+ */
+public final class EdgeResponseProcessor {
+
+    public static final long BATCH_WINDOW_MS = 250;
+
+    // Payload fields worth showing in the log, in display order
+    private static final String[] KEY_FIELDS = {"scope", "hint", "key", "id"};
+    private static final int MAX_KEY_FIELDS_PER_HANDLE = 2;
+    private static final int MAX_DETAIL_LINES = 8;
+
+    private static final int INITIAL_BUFFER_BYTES = 16 * 1024;
+    private static final int MAX_BUFFER_BYTES = 1024 * 1024;
+    private static final int MAX_STORED_PAYLOAD_BYTES = 64 * 1024;
+
+    /**
+     * One handle, reduced to what the UI shows
+     */
+    public static final class HandleSummary {
+        public final String type;
+        public final int payloadItems;
+        public final int payloadBytes; // -1 if larger than MAX_BUFFER_BYTES
+        public final String keyFields;
+
+        HandleSummary(String type, int payloadItems, int payloadBytes, String keyFields) {
+            this.type = type;
+            this.payloadItems = payloadItems;
+            this.payloadBytes = payloadBytes;
+            this.keyFields = keyFields;
+        }
+
+        public String format() {
+            String size = payloadBytes < 0 ? ">1 MB" : formatBytes(payloadBytes);
+            return type + " (" + payloadItems + " item(s), " + size + ")"
+                + (keyFields.isEmpty() ? "" : " " + keyFields);
+        }
+    }
+
+    /**
+     * Everything processed during one batch window
+     */
+    public static final class Batch {
+        public final int responses;
+        public final int handles;
+        public final long payloadBytes;
+        public final Map<String, Integer> handlesByType;
+        public final String lastLabel;
+        public final List<String> details;
+        public final long processingNanos;
+        public final int storedRows;
+        public final long storeNanos;
+
+        Batch(int responses, int handles, long payloadBytes, Map<String, Integer> handlesByType,
+              String lastLabel, List<String> details, long processingNanos,
+              int storedRows, long storeNanos) {
+            this.responses = responses;
+            this.handles = handles;
+            this.payloadBytes = payloadBytes;
+            this.handlesByType = handlesByType;
+            this.lastLabel = lastLabel;
+            this.details = details;
+            this.processingNanos = processingNanos;
+            this.storedRows = storedRows;
+            this.storeNanos = storeNanos;
+        }
+
+        /**
+         * One-line summary, e.g. "2 responses, 5 handles, 1.2 KB: state:store×3, locationHint:result×2"
+         */
+        public String format() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(responses).append(responses == 1 ? " response, " : " responses, ")
+                .append(handles).append(handles == 1 ? " handle, " : " handles, ")
+                .append(formatBytes(payloadBytes));
+            String sep = ": ";
+            for (Map.Entry<String, Integer> e : handlesByType.entrySet()) {
+                sb.append(sep).append(e.getKey()).append('×').append(e.getValue());
+                sep = ", ";
+            }
+            return sb.toString();
+        }
+    }
+
+    public interface Listener {
+        /**
+         * Called on the processor thread once per batch window
+         */
+        void onBatch(Batch batch);
+    }
+
+    private final ResponseStore store;
+    private final String runId;
+    private volatile Listener listener;
+    private final ScheduledExecutorService executor =
+        Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "aep-edge-responses"));
+
+    // Only touched on the processor thread
+    private final JsonByteWriter jsonWriter = new JsonByteWriter();
+    private ByteBuffer sizeBuffer = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+    private final StringBuilder keyScratch = new StringBuilder(64);
+    private int batchResponses;
+    private int batchHandles;
+    private long batchBytes;
+    private long batchNanos;
+    private Map<String, Integer> batchTypes = new LinkedHashMap<>();
+    private String batchLastLabel;
+    private List<String> batchDetails = new ArrayList<>();
+    private List<ResponseStore.Row> batchRows = new ArrayList<>();
+    private boolean publishScheduled;
+
+    /**
+     * @param store where handles are saved, or null to only summarize
+     * @param runId tag for every stored row, identifying this app run
+     */
+    public EdgeResponseProcessor(ResponseStore store, String runId) {
+        this.store = store;
+        this.runId = runId;
+    }
+
+    /**
+     * Receive batches from now on, or stop with null
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public String runId() {
+        return runId;
+    }
+
+    /**
+     * Queue one callback's handles; safe to call from any thread
+     *
+     * @param label what was sent, e.g. "Edge event" or "Edge event with product data"
+     * @param eventType XDM eventType of the sent event, stored with each handle
+     */
+    public void submit(String label, String eventType, List<EdgeClient.Handle> handles) {
+        long receivedAt = System.currentTimeMillis();
+        executor.execute(() -> process(label, eventType, receivedAt, handles));
+    }
+
+    private void process(String label, String eventType, long receivedAt,
+                         List<EdgeClient.Handle> handles) {
+        long start = System.nanoTime();
+        batchResponses++;
+        batchLastLabel = label;
+        if (handles != null) {
+            for (EdgeClient.Handle handle : handles) {
+                HandleSummary summary = summarize(handle);
+                if (store != null) {
+                    // summarize() left the payload JSON at the start of sizeBuffer
+                    String json = summary.payloadBytes > 0 && summary.payloadBytes <= MAX_STORED_PAYLOAD_BYTES
+                        ? new String(sizeBuffer.array(), 0, summary.payloadBytes, StandardCharsets.UTF_8)
+                        : null;
+                    batchRows.add(new ResponseStore.Row(runId, receivedAt, eventType, summary.type,
+                        summary.payloadItems, summary.payloadBytes, summary.keyFields, json));
+                }
+                batchHandles++;
+                if (summary.payloadBytes > 0) {
+                    batchBytes += summary.payloadBytes;
+                }
+                Integer count = batchTypes.get(summary.type);
+                batchTypes.put(summary.type, count == null ? 1 : count + 1);
+                if (batchDetails.size() < MAX_DETAIL_LINES) {
+                    batchDetails.add(summary.format());
+                }
+                AppLog.d(() -> "Handle - " + summary.format());
+            }
+        }
+        batchNanos += System.nanoTime() - start;
+
+        if (!publishScheduled) {
+            publishScheduled = true;
+            executor.schedule(this::publish, BATCH_WINDOW_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void publish() {
+        publishScheduled = false;
+
+        int stored = 0;
+        long storeStart = System.nanoTime();
+        if (store != null && !batchRows.isEmpty()) {
+            try {
+                store.insertBatch(batchRows);
+                stored = batchRows.size();
+            } catch (RuntimeException e) {
+                AppLog.e("Failed to store Edge responses", e);
+            }
+            batchRows = new ArrayList<>();
+        }
+        long storeNanos = System.nanoTime() - storeStart;
+
+        Batch batch = new Batch(batchResponses, batchHandles, batchBytes, batchTypes,
+            batchLastLabel, batchDetails, batchNanos, stored, storeNanos);
+        batchResponses = 0;
+        batchHandles = 0;
+        batchBytes = 0;
+        batchNanos = 0;
+        batchTypes = new LinkedHashMap<>();
+        batchDetails = new ArrayList<>();
+
+        Listener l = listener;
+        if (l != null) {
+            l.onBatch(batch);
+        }
+    }
+
+    private HandleSummary summarize(EdgeClient.Handle handle) {
+        String type = handle.getType() != null ? handle.getType() : "unknown";
+        List<Map<String, Object>> payload = handle.getPayload();
+        if (payload == null) {
+            return new HandleSummary(type, 0, 0, "");
+        }
+
+        keyScratch.setLength(0);
+        int found = 0;
+        for (Map<String, Object> item : payload) {
+            if (item == null) {
+                continue;
+            }
+            for (String field : KEY_FIELDS) {
+                Object value = item.get(field);
+                if ((value instanceof String || value instanceof Number)
+                    && found < MAX_KEY_FIELDS_PER_HANDLE) {
+                    keyScratch.append(found == 0 ? "" : ", ").append(field).append('=').append(value);
+                    found++;
+                }
+            }
+            if (found >= MAX_KEY_FIELDS_PER_HANDLE) {
+                break;
+            }
+        }
+        return new HandleSummary(type, payload.size(), serializedSize(payload), keyScratch.toString());
+    }
+
+    /**
+     * Size of the payload as UTF-8 JSON, growing the scratch buffer as needed
+     */
+    private int serializedSize(Object payload) {
+        while (true) {
+            try {
+                return jsonWriter.write(sizeBuffer, 0, payload);
+            } catch (IndexOutOfBoundsException e) {
+                if (sizeBuffer.capacity() >= MAX_BUFFER_BYTES) {
+                    return -1;
+                }
+                sizeBuffer = ByteBuffer.allocate(sizeBuffer.capacity() * 2);
+            }
+        }
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        return String.format(Locale.US, "%.1f KB", bytes / 1024.0);
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.aepvalidation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * EventGate - Per-event-type rate limiting and duplicate suppression before Edge
+ *
+ * Each XDM eventType gets a token bucket (burst size + refill rate); an
+ * event that finds the bucket empty is throttled. Independently, an event
+ * whose content matches one allowed within the last {@code dedupWindowMs} is
+ * dropped as a duplicate. Duplicates are found with a 64-bit content hash of
+ * the XDM and custom data maps, built from the keys' and values' cached
+ * hashCodes, so no map is compared or serialized. Fields that differ on
+ * every send even for a double tap (timestamp, _id) are left out of the
+ * hash. Recent hashes live in a small fixed table that never allocates;
+ * a collision only evicts an older entry, so the worst case is a missed
+ * duplicate, not a wrongly dropped event.
+ *
+ * {@link #check} does no allocation on the allow path once a type's bucket
+ * exists; see eventGateCheck in the :microbenchmark module.
+ */
+public final class EventGate {
+
+    public enum Decision { ALLOW, THROTTLED, DUPLICATE }
+
+    /**
+     * Token-bucket settings for one event type
+     */
+    public static final class Limit {
+        public final int burst;
+        public final double perSecond;
+
+        public Limit(int burst, double perSecond) {
+            if (burst <= 0 || perSecond <= 0) {
+                throw new IllegalArgumentException("Burst and rate must be > 0");
+            }
+            this.burst = burst;
+            this.perSecond = perSecond;
+        }
+    }
+
+    private static final class Bucket {
+        final Limit limit;
+        final double tokensPerNano;
+        double tokens;
+        long lastRefillNanos;
+        final AtomicLong allowed = new AtomicLong();
+        final AtomicLong throttled = new AtomicLong();
+        final AtomicLong deduplicated = new AtomicLong();
+
+        Bucket(Limit limit, long now) {
+            this.limit = limit;
+            this.tokensPerNano = limit.perSecond / 1e9;
+            this.tokens = limit.burst;
+            this.lastRefillNanos = now;
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            tokens = Math.min(limit.burst, tokens + (now - lastRefillNanos) * tokensPerNano);
+            lastRefillNanos = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final int RECENT_SLOTS = 256; // power of two
+    private static final String UNKNOWN_TYPE = "unknown";
+
+    private final Map<String, Limit> limits;
+    private final Limit defaultLimit;
+    private final long dedupWindowNanos;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    // Recently allowed content hashes and when they were allowed, guarded by recentLock
+    private final long[] recentHashes = new long[RECENT_SLOTS];
+    private final long[] recentNanos = new long[RECENT_SLOTS];
+    private final Object recentLock = new Object();
+
+    private final AtomicLong allowed = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+
+    /**
+     * @param limits per-eventType limits; other types use {@code defaultLimit}
+     * @param dedupWindowMs how long an allowed payload blocks identical ones; 0 disables
+     */
+    public EventGate(Map<String, Limit> limits, Limit defaultLimit, long dedupWindowMs) {
+        this.limits = new HashMap<>(limits);
+        this.defaultLimit = defaultLimit;
+        this.dedupWindowNanos = dedupWindowMs * 1_000_000L;
+    }
+
+    /**
+     * Decide whether an event may be sent; an ALLOW consumes a token and
+     * starts the duplicate window for this content
+     */
+    public Decision check(Map<String, Object> xdm, Map<String, Object> data) {
+        Object type = xdm != null ? xdm.get("eventType") : null;
+        String eventType = type instanceof String ? (String) type : UNKNOWN_TYPE;
+        Bucket bucket = bucketFor(eventType);
+        long now = System.nanoTime();
+
+        if (dedupWindowNanos > 0) {
+            long hash = contentHash(xdm, data);
+            if (hash == 0) {
+                hash = 1; // 0 marks an empty slot
+            }
+            int slot = (int) (hash ^ (hash >>> 32)) & (RECENT_SLOTS - 1);
+            // Lookup, token and record in one critical section, so two threads
+            // sending the same payload cannot both be allowed. A duplicate never
+            // takes a token; bucket locks are only ever taken inside this one.
+            synchronized (recentLock) {
+                if (recentHashes[slot] == hash && now - recentNanos[slot] < dedupWindowNanos) {
+                    bucket.deduplicated.incrementAndGet();
+                    deduplicated.incrementAndGet();
+                    return Decision.DUPLICATE;
+                }
+                if (!bucket.tryAcquire(now)) {
+                    return throttle(bucket);
+                }
+                recentHashes[slot] = hash;
+                recentNanos[slot] = now;
+            }
+        } else if (!bucket.tryAcquire(now)) {
+            return throttle(bucket);
+        }
+        bucket.allowed.incrementAndGet();
+        allowed.incrementAndGet();
+        return Decision.ALLOW;
+    }
+
+    private Decision throttle(Bucket bucket) {
+        bucket.throttled.incrementAndGet();
+        throttled.incrementAndGet();
+        return Decision.THROTTLED;
+    }
+
+    public long allowedCount() {
+        return allowed.get();
+    }
+
+    public long throttledCount() {
+        return throttled.get();
+    }
+
+    public long deduplicatedCount() {
+        return deduplicated.get();
+    }
+
+    public String format() {
+        StringBuilder sb = new StringBuilder(String.format(Locale.US,
+            "Gate: %d allowed, %d throttled, %d duplicates dropped",
+            allowed.get(), throttled.get(), deduplicated.get()));
+        for (Map.Entry<String, Bucket> e : buckets.entrySet()) {
+            Bucket b = e.getValue();
+            if (b.throttled.get() > 0 || b.deduplicated.get() > 0) {
+                sb.append(String.format(Locale.US, "\n  %s: %d/%d/%d (limit %d burst, %.1f/s)",
+                    e.getKey(), b.allowed.get(), b.throttled.get(), b.deduplicated.get(),
+                    b.limit.burst, b.limit.perSecond));
+            }
+        }
+        return sb.toString();
+    }
+
+    private Bucket bucketFor(String eventType) {
+        Bucket bucket = buckets.get(eventType);
+        if (bucket == null) {
+            Limit limit = limits.get(eventType);
+            Limit chosen = limit != null ? limit : defaultLimit;
+            bucket = buckets.computeIfAbsent(eventType, t -> new Bucket(chosen, System.nanoTime()));
+        }
+        return bucket;
+    }
+
+    // =========================================================
+    // CONTENT HASH
+    // Order-independent for maps, order-sensitive for lists. Maps are walked
+    // with Map.forEach, which unmodifiable maps pass straight through, so no
+    // iterator or entry wrapper is allocated; the per-thread Hasher keeps the
+    // running sums for each nesting level.
+    // =========================================================
+
+    private static final ThreadLocal<Hasher> HASHERS = ThreadLocal.withInitial(Hasher::new);
+
+    private static long contentHash(Map<String, Object> xdm, Map<String, Object> data) {
+        Hasher hasher = HASHERS.get();
+        long h = hasher.hashRoot(xdm, true) * 31 + hasher.hashRoot(data, false);
+        return mix(h);
+    }
+
+    private static final class Hasher implements BiConsumer<Object, Object> {
+        private static final long MAP_SEED = 0x9E3779B97F4A7C15L;
+
+        private long[] sums = new long[8];
+        private int depth = -1;
+        private boolean skipVolatileAtRoot;
+
+        long hashRoot(Map<String, Object> map, boolean skipVolatile) {
+            depth = -1;
+            skipVolatileAtRoot = skipVolatile;
+            return map != null ? hashValue(map) : 0;
+        }
+
+        @Override
+        public void accept(Object key, Object value) {
+            if (depth == 0 && skipVolatileAtRoot && ("timestamp".equals(key) || "_id".equals(key))) {
+                return;
+            }
+            // Sum of mixed entry hashes: independent of iteration order
+            long entry = mix((key != null ? key.hashCode() : 0) * 0x100000001B3L + hashValue(value));
+            sums[depth] += entry;
+        }
+
+        private long hashValue(Object value) {
+            if (value == null) {
+                return 0;
+            }
+            if (value instanceof Map) {
+                if (++depth == sums.length) {
+                    sums = Arrays.copyOf(sums, depth * 2);
+                }
+                sums[depth] = MAP_SEED;
+                ((Map<?, ?>) value).forEach(this);
+                return sums[depth--];
+            }
+            if (value instanceof List) {
+                List<?> list = (List<?>) value;
+                long h = 1;
+                if (list instanceof RandomAccess) {
+                    for (int i = 0, n = list.size(); i < n; i++) {
+                        h = h * 31 + mix(hashValue(list.get(i)));
+                    }
+                } else {
+                    for (Object item : list) {
+                        h = h * 31 + mix(hashValue(item));
+                    }
+                }
+                return h;
+            }
+            // String caches its hashCode; boxed numbers and booleans compute theirs cheaply
+            return value.hashCode();
+        }
+    }
+
+    /**
+     * 64-bit finalizer from MurmurHash3
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
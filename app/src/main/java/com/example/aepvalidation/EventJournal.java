@@ -0,0 +1,364 @@
+package com.example.aepvalidation;
+
+import android.util.JsonReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EventJournal - Append-only, memory-mapped record of every event handed to Edge
+ *
+ * Each record holds the XDM and custom data payloads as UTF-8 JSON plus the
+ * send time, and gets a completion time written in place when the
+ * EdgeCallback fires. The file is mapped once and its blocks are allocated up
+ * front, so an append is a bounded memory copy under a short lock: no system
+ * calls, no disk I/O and no per-event allocation (JsonByteWriter walks maps
+ * with Map.forEach). The one object still created per journaled event is the
+ * completion wrapper in EdgeEventSender that carries the record handle to
+ * {@link #markCompleted(long)}; the SDK needs a new EdgeCallback for every
+ * send in any case.
+ * Data written to the mapping survives the process being killed.
+ *
+ * On {@link #open(File, int)} the previous journal is compacted down to the
+ * records that were never acknowledged; those are exposed through
+ * {@link #recovered()} so {@link JournalReplayer} can resend them. When every
+ * record was acknowledged, which is the normal case, the file is reused in
+ * place and only a new file is preallocated. Each append zeroes the length
+ * after its record, so stale records from a reused file are never read.
+ *
+ * Record layout (big-endian):
+ * <pre>
+ *  0  int   record length, written last so a torn record is never read
+ *  4  long  event id
+ * 12  long  sent at (epoch ms)
+ * 20  long  completed at (epoch ms, 0 = not acknowledged)
+ * 28  int   XDM JSON length
+ * 32  int   custom data JSON length (-1 = none)
+ * 36  ...   XDM JSON, then custom data JSON
+ * </pre>
+ */
+public final class EventJournal implements Closeable {
+
+    private static final int OFF_LENGTH = 0;
+    private static final int OFF_EVENT_ID = 4;
+    private static final int OFF_SENT_AT = 12;
+    private static final int OFF_COMPLETED_AT = 20;
+    private static final int OFF_XDM_LENGTH = 28;
+    private static final int OFF_DATA_LENGTH = 32;
+    private static final int HEADER_SIZE = 36;
+    private static final int NO_DATA = -1;
+
+    private static final int PREALLOCATE_CHUNK = 64 * 1024;
+
+    /**
+     * An unacknowledged event recovered from the previous run
+     */
+    public static final class Entry {
+        public final long handle;
+        public final long eventId;
+        public final long sentAtMillis;
+        public final Map<String, Object> xdm;
+        public final Map<String, Object> data;
+
+        Entry(long handle, long eventId, long sentAtMillis,
+              Map<String, Object> xdm, Map<String, Object> data) {
+            this.handle = handle;
+            this.eventId = eventId;
+            this.sentAtMillis = sentAtMillis;
+            this.xdm = xdm;
+            this.data = data;
+        }
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final JsonByteWriter jsonWriter = new JsonByteWriter();
+    private final Object lock = new Object();
+    private final List<Entry> recovered;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong acknowledged = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+
+    private int writePosition;
+    private long nextEventId;
+    private boolean closed;
+
+    private EventJournal(FileChannel channel, MappedByteBuffer buffer, int writePosition,
+                         long nextEventId, List<Entry> recovered) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.writePosition = writePosition;
+        this.nextEventId = nextEventId;
+        this.recovered = recovered;
+    }
+
+    /**
+     * Open the journal, carrying over unacknowledged records from the last run.
+     * Does file I/O; never call on the main thread.
+     */
+    public static EventJournal open(File file, int capacityBytes) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+
+        if (file.length() == capacityBytes) {
+            EventJournal reused = reuseIfAcknowledged(file, capacityBytes);
+            if (reused != null) {
+                return reused;
+            }
+        }
+
+        // Build the compacted journal next to the old one, then swap it in
+        File compacted = new File(file.getPath() + ".tmp");
+        RandomAccessFile raf = new RandomAccessFile(compacted, "rw");
+        FileChannel channel = raf.getChannel();
+        try {
+            raf.setLength(0);
+            preallocate(channel, capacityBytes);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityBytes);
+
+            int writePosition = 0;
+            long maxEventId = 0;
+            List<Entry> recovered = new ArrayList<>();
+
+            if (file.isFile()) {
+                try (RandomAccessFile old = new RandomAccessFile(file, "r")) {
+                    FileChannel oldChannel = old.getChannel();
+                    int oldSize = (int) Math.min(oldChannel.size(), capacityBytes);
+                    MappedByteBuffer previous = oldChannel.map(FileChannel.MapMode.READ_ONLY, 0, oldSize);
+
+                    int pos = 0;
+                    while (pos + HEADER_SIZE <= oldSize) {
+                        int length = previous.getInt(pos + OFF_LENGTH);
+                        if (length < HEADER_SIZE || pos + length > oldSize) {
+                            break; // end of journal, or a torn record
+                        }
+                        long eventId = previous.getLong(pos + OFF_EVENT_ID);
+                        maxEventId = Math.max(maxEventId, eventId);
+
+                        if (previous.getLong(pos + OFF_COMPLETED_AT) == 0) {
+                            // Copy the record verbatim into the compacted journal
+                            ByteBuffer src = previous.duplicate();
+                            src.limit(pos + length);
+                            src.position(pos);
+                            ByteBuffer dst = buffer.duplicate();
+                            dst.position(writePosition);
+                            dst.put(src);
+                            recovered.add(readEntry(buffer, writePosition));
+                            writePosition += length;
+                        }
+                        pos += length;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // An unreadable journal must not block startup
+                    AppLog.e("Could not read previous event journal: " + e.getMessage());
+                    recovered.clear();
+                    for (int i = 0; i < writePosition; i++) {
+                        buffer.put(i, (byte) 0);
+                    }
+                    writePosition = 0;
+                }
+            }
+
+            buffer.force();
+            if (!compacted.renameTo(file)) {
+                throw new IOException("Cannot replace " + file);
+            }
+            AppLog.d(() -> "Event journal opened: " + recovered.size() + " unacknowledged event(s) recovered");
+            return new EventJournal(channel, buffer, writePosition, maxEventId + 1,
+                Collections.unmodifiableList(recovered));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reopen the previous journal in place if it holds no unacknowledged
+     * records, keeping its allocated blocks. Returns null when it needs compacting.
+     */
+    private static EventJournal reuseIfAcknowledged(File file, int capacityBytes) {
+        FileChannel channel = null;
+        try {
+            channel = new RandomAccessFile(file, "rw").getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityBytes);
+
+            long maxEventId = 0;
+            int pos = 0;
+            while (pos + HEADER_SIZE <= capacityBytes) {
+                int length = buffer.getInt(pos + OFF_LENGTH);
+                if (length < HEADER_SIZE || pos + length > capacityBytes) {
+                    break; // end of journal, or a torn record
+                }
+                if (buffer.getLong(pos + OFF_COMPLETED_AT) == 0) {
+                    channel.close();
+                    return null;
+                }
+                maxEventId = Math.max(maxEventId, buffer.getLong(pos + OFF_EVENT_ID));
+                pos += length;
+            }
+
+            // Hide the old records: the first append overwrites from the start
+            buffer.putInt(OFF_LENGTH, 0);
+            buffer.force();
+            AppLog.d("Event journal reused: no unacknowledged events");
+            return new EventJournal(channel, buffer, 0, maxEventId + 1, Collections.emptyList());
+        } catch (IOException | RuntimeException e) {
+            AppLog.e("Could not reuse previous event journal: " + e.getMessage());
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Already failing over to a new journal
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Record an event about to be sent
+     *
+     * @return a handle for {@link #markCompleted(long)}, or -1 if the journal is full or closed
+     */
+    public long append(Map<String, Object> xdm, Map<String, Object> data) {
+        synchronized (lock) {
+            if (closed) {
+                return -1;
+            }
+            int start = writePosition;
+            try {
+                int xdmStart = start + HEADER_SIZE;
+                int xdmEnd = jsonWriter.write(buffer, xdmStart, xdm);
+                int dataEnd = data != null ? jsonWriter.write(buffer, xdmEnd, data) : xdmEnd;
+
+                buffer.putLong(start + OFF_EVENT_ID, nextEventId++);
+                buffer.putLong(start + OFF_SENT_AT, System.currentTimeMillis());
+                buffer.putLong(start + OFF_COMPLETED_AT, 0);
+                buffer.putInt(start + OFF_XDM_LENGTH, xdmEnd - xdmStart);
+                buffer.putInt(start + OFF_DATA_LENGTH, data != null ? dataEnd - xdmEnd : NO_DATA);
+                if (dataEnd + OFF_LENGTH + 4 <= buffer.capacity()) {
+                    // End marker, in case a reused file has older records past this one
+                    buffer.putInt(dataEnd + OFF_LENGTH, 0);
+                }
+                // Commit last: a record with no length is invisible to recovery
+                buffer.putInt(start + OFF_LENGTH, dataEnd - start);
+
+                writePosition = dataEnd;
+                appended.incrementAndGet();
+                return start;
+            } catch (IndexOutOfBoundsException full) {
+                if (overflowed.getAndIncrement() == 0) {
+                    AppLog.w("Event journal full at " + start + " bytes, further events are not journaled");
+                }
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Stamp the completion time on a journaled event
+     */
+    public void markCompleted(long handle) {
+        if (handle < 0) {
+            return;
+        }
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            buffer.putLong((int) handle + OFF_COMPLETED_AT, System.currentTimeMillis());
+        }
+        acknowledged.incrementAndGet();
+    }
+
+    /**
+     * Unacknowledged events carried over from the previous run
+     */
+    public List<Entry> recovered() {
+        return recovered;
+    }
+
+    public String format() {
+        return String.format(Locale.US,
+            "Journal: %d appended, %d acknowledged, %d recovered, %d not journaled (full)",
+            appended.get(), acknowledged.get(), recovered.size(), overflowed.get());
+    }
+
+    /**
+     * Flush the mapping to storage. Only needed to survive power loss;
+     * a killed process keeps everything already written.
+     */
+    public void flush() {
+        synchronized (lock) {
+            if (!closed) {
+                buffer.force();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            buffer.force();
+            closed = true;
+        }
+        channel.close();
+    }
+
+    private static Entry readEntry(ByteBuffer buf, int pos) throws IOException {
+        int xdmLength = buf.getInt(pos + OFF_XDM_LENGTH);
+        int dataLength = buf.getInt(pos + OFF_DATA_LENGTH);
+        int xdmStart = pos + HEADER_SIZE;
+        Map<String, Object> xdm = parseObject(buf, xdmStart, xdmLength);
+        Map<String, Object> data = dataLength != NO_DATA
+            ? parseObject(buf, xdmStart + xdmLength, dataLength) : null;
+        return new Entry(pos, buf.getLong(pos + OFF_EVENT_ID), buf.getLong(pos + OFF_SENT_AT),
+            xdm, data);
+    }
+
+    private static Map<String, Object> parseObject(ByteBuffer buf, int start, int length)
+            throws IOException {
+        byte[] bytes = new byte[length];
+        ByteBuffer src = buf.duplicate();
+        src.position(start);
+        src.get(bytes);
+        try (JsonReader reader = new JsonReader(
+                new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8))) {
+            return JsonMaps.readObject(reader);
+        }
+    }
+
+    /**
+     * Write zeros over the whole file so its blocks exist before it is mapped
+     * and appends never fault into filesystem allocation
+     */
+    private static void preallocate(FileChannel channel, int capacityBytes) throws IOException {
+        ByteBuffer zeros = ByteBuffer.allocate(PREALLOCATE_CHUNK);
+        long written = 0;
+        while (written < capacityBytes) {
+            zeros.clear();
+            zeros.limit((int) Math.min(PREALLOCATE_CHUNK, capacityBytes - written));
+            written += channel.write(zeros, written);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.aepvalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * IdentityClient - ECID lookups and identity reset notifications
+ *
+ * {@link SdkIdentityClient} forwards to the Identity and Edge Identity
+ * extensions; {@link EcidService} caches on top of whichever is given.
+ */
+public interface IdentityClient {
+
+    /**
+     * Receives one lookup's answer, on a client thread
+     */
+    interface Callback {
+        void onEcid(String ecid);
+
+        void onError(String error);
+    }
+
+    /**
+     * Look up the ECID held by one identity extension
+     */
+    void getExperienceCloudId(EcidService.Source source, Callback callback);
+
+    /**
+     * Be told, with a short reason, whenever either extension is asked to reset
+     */
+    void addResetListener(Consumer<String> listener);
+}
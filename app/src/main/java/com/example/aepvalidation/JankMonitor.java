@@ -0,0 +1,308 @@
+package com.example.aepvalidation;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.StrictMode;
+import android.util.Printer;
+import android.view.Choreographer;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * JankMonitor - Slow frames, long main-thread messages and StrictMode hits, by user action
+ *
+ * Three sources feed one set of counters:
+ *   - a self-reposting Choreographer frame callback; a frame whose vsync
+ *     gap is over 1.5 frame intervals is slow, over 700 ms frozen
+ *   - the main Looper's message-logging hook, which brackets every
+ *     dispatched message; one running longer than 50 ms is reported with
+ *     its target handler
+ *   - StrictMode disk/network violations (debuggable builds only)
+ *
+ * Each hit is attributed to the action in flight: the last
+ * {@link #beginAction} call, for up to a second after it. That covers the
+ * tap handler itself and the UI updates it triggers; later hits count as
+ * "(idle)". Everything except StrictMode delivery runs on the main thread,
+ * and violations are posted there, so the counters need no locking.
+ *
+ * The Looper hook makes Looper build two log strings per message, and the
+ * frame callback wakes the main thread every vsync, so both are attached in
+ * {@link #start} and removed in {@link #stop}: tracking is only on while an
+ * activity is resumed.
+ */
+public final class JankMonitor {
+
+    private static final double SLOW_FRAME_FACTOR = 1.5;
+    private static final long FROZEN_FRAME_NANOS = 700_000_000L;
+    private static final long LONG_MESSAGE_NANOS = 50_000_000L;
+    private static final long ACTION_WINDOW_NANOS = 1_000_000_000L;
+    private static final int RECENT_EVENTS = 128;
+    private static final String NO_ACTION = "(idle)";
+
+    private static final String DISPATCH_PREFIX = ">>>>> Dispatching to ";
+    private static final String FINISH_PREFIX = "<<<<< Finished to ";
+
+    /**
+     * Slow frames, long messages and violations seen during one action
+     */
+    private static final class ActionStats {
+        long slowFrames;
+        long frozenFrames;
+        long longMessages;
+        long violations;
+        long worstFrameNanos;
+        long worstMessageNanos;
+    }
+
+    /**
+     * One reported hit, kept for the report
+     */
+    private static final class Event {
+        long atNanos;
+        String kind;
+        long durationNanos;
+        String action;
+        String detail;
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final long startNanos = System.nanoTime();
+    private final LatencyHistogram frameTimes = new LatencyHistogram();
+    private final Map<String, ActionStats> byAction = new LinkedHashMap<>();
+    private final Event[] recent = new Event[RECENT_EVENTS];
+    private int recentNext;
+
+    private long frameIntervalNanos = 16_666_667L;
+    private long lastFrameTimeNanos;
+    private boolean tracking;
+
+    private long messageStartNanos;
+    private String messageTarget;
+
+    private String action;
+    private long actionStartNanos;
+
+    private long frames;
+    private long slowFrames;
+    private long frozenFrames;
+    private long longMessages;
+    private long violations;
+
+    private Runnable listener;
+
+    private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            onFrame(frameTimeNanos);
+            if (tracking) {
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        }
+    };
+
+    private final Printer looperPrinter = this::onLooperMessage;
+
+    /**
+     * Report main-thread disk and network access; intended for debuggable builds
+     */
+    public void enableStrictMode() {
+        StrictMode.ThreadPolicy.Builder policy = new StrictMode.ThreadPolicy.Builder()
+            .detectDiskReads()
+            .detectDiskWrites()
+            .detectNetwork()
+            .penaltyLog();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            policy.penaltyListener(mainHandler::post, violation -> onViolation(
+                violation.getClass().getSimpleName(), String.valueOf(violation.getMessage())));
+        }
+        StrictMode.setThreadPolicy(policy.build());
+    }
+
+    /**
+     * Start measuring frames and main-thread messages, on the main thread;
+     * {@code refreshRate} is the display's, in Hz
+     */
+    public void start(float refreshRate) {
+        if (refreshRate > 1) {
+            frameIntervalNanos = (long) (1e9 / refreshRate);
+        }
+        if (!tracking) {
+            tracking = true;
+            lastFrameTimeNanos = 0;
+            messageStartNanos = 0;
+            Looper.getMainLooper().setMessageLogging(looperPrinter);
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
+    }
+
+    public void stop() {
+        tracking = false;
+        Looper.getMainLooper().setMessageLogging(null);
+        Choreographer.getInstance().removeFrameCallback(frameCallback);
+    }
+
+    /**
+     * Mark a user action; hits in the next second are charged to it
+     */
+    public void beginAction(String name) {
+        action = name;
+        actionStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Called on the main thread whenever a counter changes
+     */
+    public void setListener(Runnable listener) {
+        this.listener = listener;
+    }
+
+    // =========================================================
+    // SOURCES
+    // =========================================================
+
+    private void onFrame(long frameTimeNanos) {
+        long previous = lastFrameTimeNanos;
+        lastFrameTimeNanos = frameTimeNanos;
+        if (previous == 0) {
+            return; // first frame after (re)start has no interval
+        }
+        long duration = frameTimeNanos - previous;
+        frames++;
+        frameTimes.recordNanos(duration);
+        if (duration <= frameIntervalNanos * SLOW_FRAME_FACTOR) {
+            return;
+        }
+
+        boolean frozen = duration >= FROZEN_FRAME_NANOS;
+        String charged = actionAt(previous, frameTimeNanos);
+        ActionStats stats = statsFor(charged);
+        if (frozen) {
+            frozenFrames++;
+            stats.frozenFrames++;
+        } else {
+            slowFrames++;
+            stats.slowFrames++;
+        }
+        stats.worstFrameNanos = Math.max(stats.worstFrameNanos, duration);
+        String missed = (duration / frameIntervalNanos - 1) + " vsync(s) missed";
+        addEvent(frozen ? "frozen frame" : "slow frame", duration, charged, missed);
+    }
+
+    private void onLooperMessage(String line) {
+        if (line.startsWith(DISPATCH_PREFIX)) {
+            messageStartNanos = System.nanoTime();
+            messageTarget = line;
+        } else if (line.startsWith(FINISH_PREFIX) && messageStartNanos != 0) {
+            long end = System.nanoTime();
+            long duration = end - messageStartNanos;
+            if (duration >= LONG_MESSAGE_NANOS) {
+                String charged = actionAt(messageStartNanos, end);
+                ActionStats stats = statsFor(charged);
+                longMessages++;
+                stats.longMessages++;
+                stats.worstMessageNanos = Math.max(stats.worstMessageNanos, duration);
+                addEvent("long message", duration, charged, messageTarget.substring(DISPATCH_PREFIX.length()));
+            }
+            messageStartNanos = 0;
+        }
+    }
+
+    private void onViolation(String type, String message) {
+        long now = System.nanoTime();
+        String charged = actionAt(now, now);
+        violations++;
+        statsFor(charged).violations++;
+        addEvent("StrictMode " + type, 0, charged, message);
+    }
+
+    /**
+     * The action whose window overlaps [startNanos, endNanos]
+     */
+    private String actionAt(long startNanos, long endNanos) {
+        return action != null && actionStartNanos <= endNanos
+            && startNanos < actionStartNanos + ACTION_WINDOW_NANOS ? action : NO_ACTION;
+    }
+
+    private ActionStats statsFor(String name) {
+        ActionStats stats = byAction.get(name);
+        if (stats == null) {
+            stats = new ActionStats();
+            byAction.put(name, stats);
+        }
+        return stats;
+    }
+
+    private void addEvent(String kind, long durationNanos, String chargedTo, String detail) {
+        Event event = recent[recentNext];
+        if (event == null) {
+            event = new Event();
+            recent[recentNext] = event;
+        }
+        event.atNanos = System.nanoTime();
+        event.kind = kind;
+        event.durationNanos = durationNanos;
+        event.action = chargedTo;
+        event.detail = detail;
+        recentNext = (recentNext + 1) % RECENT_EVENTS;
+
+        AppLog.d("Jank: ", kind);
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    // =========================================================
+    // OUTPUT (main thread)
+    // =========================================================
+
+    /**
+     * One line for the status panel
+     */
+    public String summary() {
+        String text = String.format(Locale.US, "🐢 %d slow · %d frozen · %d long msg",
+            slowFrames, frozenFrames, longMessages);
+        return violations > 0 ? text + " · " + violations + " StrictMode" : text;
+    }
+
+    /**
+     * Full plain-text report: totals, frame time distribution, per-action
+     * breakdown and the most recent hits, oldest first
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US,
+            "Jank report (%.1f s monitored, frame budget %.1f ms)\n\n",
+            (System.nanoTime() - startNanos) / 1e9, frameIntervalNanos / 1e6));
+        sb.append(String.format(Locale.US,
+            "Frames: %d tracked, %d slow, %d frozen (p50 %.1f / p90 %.1f / p99 %.1f / max %.1f ms)\n",
+            frames, slowFrames, frozenFrames,
+            frameTimes.percentileNanos(50) / 1e6, frameTimes.percentileNanos(90) / 1e6,
+            frameTimes.percentileNanos(99) / 1e6, frameTimes.maxNanos() / 1e6));
+        sb.append(String.format(Locale.US, "Long main-thread messages (>= %d ms): %d\n",
+            LONG_MESSAGE_NANOS / 1_000_000, longMessages));
+        sb.append("StrictMode violations: ").append(violations).append("\n\n");
+
+        sb.append("By action (slow/frozen frames, long msgs, violations, worst frame, worst msg):\n");
+        for (Map.Entry<String, ActionStats> e : byAction.entrySet()) {
+            ActionStats s = e.getValue();
+            sb.append(String.format(Locale.US, "  %-24s %d/%d  %d  %d  %.1f ms  %.1f ms\n",
+                e.getKey(), s.slowFrames, s.frozenFrames, s.longMessages, s.violations,
+                s.worstFrameNanos / 1e6, s.worstMessageNanos / 1e6));
+        }
+
+        sb.append("\nRecent (last ").append(RECENT_EVENTS).append("):\n");
+        for (int i = 0; i < RECENT_EVENTS; i++) {
+            Event event = recent[(recentNext + i) % RECENT_EVENTS];
+            if (event == null) {
+                continue;
+            }
+            sb.append(String.format(Locale.US, "  +%9.3fs  %-16s %8.1f ms  %-20s %s\n",
+                (event.atNanos - startNanos) / 1e9, event.kind, event.durationNanos / 1e6,
+                event.action, event.detail));
+        }
+        return sb.toString();
+    }
+}
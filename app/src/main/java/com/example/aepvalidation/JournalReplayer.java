@@ -0,0 +1,87 @@
+package com.example.aepvalidation;
+
+import com.adobe.marketing.mobile.ExperienceEvent;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JournalReplayer - Resends events left unacknowledged by a previous run
+ *
+ * Events are resent in fixed-size batches, and each batch waits for its
+ * EdgeCallbacks before the next one starts, so a large backlog never floods
+ * the Edge queue. Every completion is stamped back into the journal record
+ * it came from. Events still unacknowledged when a batch times out stay in
+ * the journal and are tried again on the next start.
+ */
+public final class JournalReplayer {
+
+    private static final int BATCH_SIZE = 50;
+    private static final long BATCH_TIMEOUT_SECONDS = 30;
+
+    private final EventJournal journal;
+    private final EdgeEventSender sender;
+
+    public JournalReplayer(EventJournal journal, EdgeEventSender sender) {
+        this.journal = journal;
+        this.sender = sender;
+    }
+
+    /**
+     * Resend all recovered events. Blocks until done; run on a background thread.
+     *
+     * @return number of events acknowledged by Edge
+     */
+    public int replay() {
+        List<EventJournal.Entry> entries = journal.recovered();
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        AppLog.d(() -> "Replaying " + entries.size() + " unacknowledged event(s) from journal");
+
+        AtomicInteger acknowledged = new AtomicInteger();
+        for (int start = 0; start < entries.size(); start += BATCH_SIZE) {
+            List<EventJournal.Entry> batch =
+                entries.subList(start, Math.min(start + BATCH_SIZE, entries.size()));
+            CountDownLatch done = new CountDownLatch(batch.size());
+
+            for (EventJournal.Entry entry : batch) {
+                ExperienceEvent.Builder builder = new ExperienceEvent.Builder().setXdmSchema(entry.xdm);
+                if (entry.data != null) {
+                    builder.setData(entry.data);
+                }
+                EdgeEventSender.Result result = sender.resend(builder.build(), new EdgeClient.Callback() {
+                    @Override
+                    public void onComplete(List<EdgeClient.Handle> handles) {
+                        journal.markCompleted(entry.handle);
+                        acknowledged.incrementAndGet();
+                        done.countDown();
+                    }
+
+                    @Override
+                    public void onFailed(Throwable error) {
+                        // Left unacknowledged for the next start
+                        done.countDown();
+                    }
+                });
+                if (result == EdgeEventSender.Result.REJECTED) {
+                    done.countDown();
+                }
+            }
+
+            try {
+                if (!done.await(BATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    AppLog.w("Journal replay batch timed out; unacknowledged events will be retried next start");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        AppLog.d(() -> "Journal replay finished: " + acknowledged.get() + "/" + entries.size() + " acknowledged");
+        return acknowledged.get();
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.aepvalidation;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * JsonByteWriter - Serializes XDM-style maps as UTF-8 JSON straight into a ByteBuffer
+ *
+ * Handles the value types used in Edge payloads: Map, List, String, Number,
+ * Boolean and null. Writes use absolute indexes, so no intermediate String
+ * or byte[] is created; integers are formatted digit by digit and doubles
+ * through a reused scratch builder. Maps are walked with Map.forEach and a
+ * reused entry writer, so no iterator is created either. Not thread-safe;
+ * callers keep one instance per thread or guard it with a lock.
+ */
+public final class JsonByteWriter {
+
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] HEX = {
+        '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+    };
+
+    private final StringBuilder scratch = new StringBuilder(32);
+    private final BiConsumer<Object, Object> entryWriter = this::writeEntry;
+
+    // Map.forEach state: the map entries are written into, and per nesting
+    // level whether the next entry is the first
+    private ByteBuffer target;
+    private int cursor;
+    private boolean[] firstEntry = new boolean[8];
+    private int depth = -1;
+
+    /**
+     * Write a value at {@code pos}
+     *
+     * @return the index just past the written bytes
+     * @throws IndexOutOfBoundsException if the value does not fit before the buffer's limit
+     */
+    public int write(ByteBuffer buf, int pos, Object value) {
+        // A previous write may have stopped mid-map on a full buffer
+        depth = -1;
+        try {
+            return writeValue(buf, pos, value);
+        } finally {
+            target = null;
+        }
+    }
+
+    private int writeValue(ByteBuffer buf, int pos, Object value) {
+        if (value == null) {
+            return putBytes(buf, pos, NULL);
+        } else if (value instanceof String) {
+            return writeString(buf, pos, (String) value);
+        } else if (value instanceof Map) {
+            return writeMap(buf, pos, (Map<?, ?>) value);
+        } else if (value instanceof List) {
+            return writeList(buf, pos, (List<?>) value);
+        } else if (value instanceof Boolean) {
+            return putBytes(buf, pos, (Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Integer || value instanceof Long
+            || value instanceof Short || value instanceof Byte) {
+            return writeLong(buf, pos, ((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            return writeDouble(buf, pos, ((Number) value).doubleValue());
+        } else if (value instanceof Number) {
+            scratch.setLength(0);
+            scratch.append(value);
+            return putAscii(buf, pos, scratch);
+        }
+        return writeString(buf, pos, value.toString());
+    }
+
+    private int writeMap(ByteBuffer buf, int pos, Map<?, ?> map) {
+        buf.put(pos++, (byte) '{');
+        if (++depth == firstEntry.length) {
+            firstEntry = Arrays.copyOf(firstEntry, depth * 2);
+        }
+        firstEntry[depth] = true;
+        target = buf;
+        cursor = pos;
+        map.forEach(entryWriter);
+        pos = cursor;
+        depth--;
+        buf.put(pos++, (byte) '}');
+        return pos;
+    }
+
+    private void writeEntry(Object key, Object value) {
+        ByteBuffer buf = target;
+        int pos = cursor;
+        if (!firstEntry[depth]) {
+            buf.put(pos++, (byte) ',');
+        }
+        firstEntry[depth] = false;
+        pos = writeString(buf, pos, String.valueOf(key));
+        buf.put(pos++, (byte) ':');
+        // A nested map moves the cursor itself; set it from the returned index
+        cursor = writeValue(buf, pos, value);
+    }
+
+    private int writeList(ByteBuffer buf, int pos, List<?> list) {
+        buf.put(pos++, (byte) '[');
+        for (int i = 0, n = list.size(); i < n; i++) {
+            if (i > 0) {
+                buf.put(pos++, (byte) ',');
+            }
+            pos = writeValue(buf, pos, list.get(i));
+        }
+        buf.put(pos++, (byte) ']');
+        return pos;
+    }
+
+    private int writeString(ByteBuffer buf, int pos, String s) {
+        buf.put(pos++, (byte) '"');
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                buf.put(pos++, (byte) '\\');
+                buf.put(pos++, (byte) c);
+            } else if (c < 0x20) {
+                buf.put(pos++, (byte) '\\');
+                buf.put(pos++, (byte) 'u');
+                buf.put(pos++, (byte) '0');
+                buf.put(pos++, (byte) '0');
+                buf.put(pos++, HEX[c >> 4]);
+                buf.put(pos++, HEX[c & 0xF]);
+            } else if (c < 0x80) {
+                buf.put(pos++, (byte) c);
+            } else if (c < 0x800) {
+                buf.put(pos++, (byte) (0xC0 | (c >> 6)));
+                buf.put(pos++, (byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n
+                && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buf.put(pos++, (byte) (0xF0 | (cp >> 18)));
+                buf.put(pos++, (byte) (0x80 | ((cp >> 12) & 0x3F)));
+                buf.put(pos++, (byte) (0x80 | ((cp >> 6) & 0x3F)));
+                buf.put(pos++, (byte) (0x80 | (cp & 0x3F)));
+            } else {
+                buf.put(pos++, (byte) (0xE0 | (c >> 12)));
+                buf.put(pos++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                buf.put(pos++, (byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        buf.put(pos++, (byte) '"');
+        return pos;
+    }
+
+    private int writeLong(ByteBuffer buf, int pos, long v) {
+        if (v == Long.MIN_VALUE) {
+            scratch.setLength(0);
+            scratch.append(v);
+            return putAscii(buf, pos, scratch);
+        }
+        if (v < 0) {
+            buf.put(pos++, (byte) '-');
+            v = -v;
+        }
+        int digits = 1;
+        for (long t = v; t >= 10; t /= 10) {
+            digits++;
+        }
+        int end = pos + digits;
+        for (int i = end - 1; i >= pos; i--) {
+            buf.put(i, (byte) ('0' + (v % 10)));
+            v /= 10;
+        }
+        return end;
+    }
+
+    private int writeDouble(ByteBuffer buf, int pos, double v) {
+        if (Double.isNaN(v) || Double.isInfinite(v)) {
+            return putBytes(buf, pos, NULL); // not representable in JSON
+        }
+        scratch.setLength(0);
+        scratch.append(v);
+        return putAscii(buf, pos, scratch);
+    }
+
+    private static int putAscii(ByteBuffer buf, int pos, CharSequence s) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            buf.put(pos++, (byte) s.charAt(i));
+        }
+        return pos;
+    }
+
+    private static int putBytes(ByteBuffer buf, int pos, byte[] bytes) {
+        for (byte b : bytes) {
+            buf.put(pos++, b);
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.aepvalidation;
+
+import android.util.JsonReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JsonMaps - Reads JSON into the Map/List shapes that ExperienceEvent accepts
+ *
+ * Objects become HashMap, arrays ArrayList, integral numbers Long (or Integer
+ * when they fit) and other numbers Double.
+ */
+public final class JsonMaps {
+
+    private JsonMaps() {
+    }
+
+    public static Map<String, Object> readObject(JsonReader reader) throws IOException {
+        Map<String, Object> map = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            map.put(reader.nextName(), readValue(reader));
+        }
+        reader.endObject();
+        return map;
+    }
+
+    public static Object readValue(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                return readObject(reader);
+            case BEGIN_ARRAY:
+                List<Object> list = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    list.add(readValue(reader));
+                }
+                reader.endArray();
+                return list;
+            case STRING:
+                return reader.nextString();
+            case NUMBER:
+                return parseNumber(reader.nextString());
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return null;
+            default:
+                throw new IOException("Unexpected JSON token: " + reader.peek());
+        }
+    }
+
+    /**
+     * Integer, Long or Double, by the rules above
+     */
+    static Object parseNumber(String text) {
+        if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+            try {
+                long value = Long.parseLong(text);
+                if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                    return (int) value;
+                }
+                return value;
+            } catch (NumberFormatException ignored) {
+                // Too large for a long, fall through to double
+            }
+        }
+        return Double.parseDouble(text);
+    }
+}
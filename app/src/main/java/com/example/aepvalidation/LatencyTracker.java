@@ -0,0 +1,140 @@
+package com.example.aepvalidation;
+
+import android.util.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * LatencyTracker - Send-to-callback latency per XDM event type
+ *
+ * Callers stamp {@link #start()} just before Edge.sendEvent and pass the
+ * stamp to {@link #record(String, long)} from EdgeCallback.onComplete.
+ * Timing uses System.nanoTime, so it is monotonic and unaffected by wall
+ * clock changes. One {@link LatencyHistogram} is kept per event type for the
+ * lifetime of the process and can be exported as CSV or JSON.
+ */
+public final class LatencyTracker {
+
+    private static final LatencyTracker SHARED = new LatencyTracker();
+
+    private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Process-wide tracker shared by the UI buttons and load runs
+     */
+    public static LatencyTracker shared() {
+        return SHARED;
+    }
+
+    /**
+     * Monotonic start stamp for an event about to be sent
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Record the latency of a completed event
+     */
+    public void record(String eventType, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        histogramFor(eventType).recordNanos(elapsed);
+        AppLog.trace(TraceRing.EVENT_COMPLETE, elapsed / 1000);
+    }
+
+    public LatencyHistogram histogramFor(String eventType) {
+        LatencyHistogram histogram = histograms.get(eventType);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(eventType, t -> new LatencyHistogram());
+        }
+        return histogram;
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Human-readable summary, one line per event type
+     */
+    public String summary() {
+        Map<String, LatencyHistogram> sorted = sorted();
+        if (sorted.isEmpty()) {
+            return "No completed events yet";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, LatencyHistogram> entry : sorted.entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            sb.append(String.format(Locale.US,
+                "%s (n=%d)\n  p50 %.1f  p90 %.1f  p99 %.1f  max %.1f ms",
+                entry.getKey(), h.count(),
+                millis(h.percentileNanos(50)), millis(h.percentileNanos(90)),
+                millis(h.percentileNanos(99)), millis(h.maxNanos())));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Write all histograms as CSV with a header row
+     */
+    public void writeCsv(Writer out, String sdkVersion) throws IOException {
+        out.write("sdk_version,event_type,count,mean_ms,p50_ms,p90_ms,p99_ms,max_ms\n");
+        for (Map.Entry<String, LatencyHistogram> entry : sorted().entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            out.write(String.format(Locale.US, "%s,%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f\n",
+                sdkVersion, entry.getKey(), h.count(), h.meanNanos() / 1e6,
+                millis(h.percentileNanos(50)), millis(h.percentileNanos(90)),
+                millis(h.percentileNanos(99)), millis(h.maxNanos())));
+        }
+        out.flush();
+    }
+
+    /**
+     * Write all histograms as a JSON object keyed by event type
+     */
+    public void writeJson(Writer out, String sdkVersion) throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        json.setIndent("  ");
+        json.beginObject();
+        json.name("sdkVersion").value(sdkVersion);
+        json.name("eventTypes").beginObject();
+        for (Map.Entry<String, LatencyHistogram> entry : sorted().entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            json.name(entry.getKey()).beginObject();
+            json.name("count").value(h.count());
+            json.name("meanMs").value(h.meanNanos() / 1e6);
+            json.name("p50Ms").value(millis(h.percentileNanos(50)));
+            json.name("p90Ms").value(millis(h.percentileNanos(90)));
+            json.name("p99Ms").value(millis(h.percentileNanos(99)));
+            json.name("maxMs").value(millis(h.maxNanos()));
+            json.endObject();
+        }
+        json.endObject();
+        json.endObject();
+        json.flush();
+    }
+
+    private Map<String, LatencyHistogram> sorted() {
+        Map<String, LatencyHistogram> sorted = new TreeMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            if (entry.getValue().count() > 0) {
+                sorted.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return sorted;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
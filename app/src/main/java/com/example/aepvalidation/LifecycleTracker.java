@@ -0,0 +1,234 @@
+package com.example.aepvalidation;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.adobe.marketing.mobile.Event;
+import com.adobe.marketing.mobile.EventSource;
+import com.adobe.marketing.mobile.EventType;
+import com.adobe.marketing.mobile.MobileCore;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LifecycleTracker - Process-wide lifecycleStart/lifecyclePause, timed
+ *
+ * Driven by the application's activity callbacks instead of each activity's
+ * onResume/onPause: lifecycleStart when the first activity resumes,
+ * lifecyclePause once none has been resumed for 700 ms (the same delay as
+ * androidx ProcessLifecycleOwner), so moving between activities or rotating
+ * the screen does not pause and restart the session.
+ *
+ * Measured:
+ *   - main-thread cost of each lifecycleStart/lifecyclePause call
+ *   - start -> the Lifecycle extension's session event (response content or
+ *     application launch), and pause -> application close event
+ *   - session data from the start response: launches, previous session length
+ *
+ * Calls made before the Lifecycle extension is registered would be lost, so
+ * the first lifecycleStart waits for {@link #onExtensionRegistered()}.
+ * Activity callbacks run on the main thread; SDK events arrive on SDK threads.
+ */
+public final class LifecycleTracker {
+
+    private static final long PAUSE_DELAY_MS = 700;
+
+    // Lifecycle start response data keys
+    private static final String KEY_CONTEXT_DATA = "lifecyclecontextdata";
+    private static final String KEY_SESSION_EVENT = "sessionevent";
+    private static final String KEY_LAUNCHES = "launches";
+    private static final String KEY_PREVIOUS_SESSION_LENGTH = "prevsessionlength";
+    private static final String KEY_CRASH = "crashevent";
+    private static final String SESSION_START = "start";
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable delayedPause = this::pause;
+
+    // Main thread only
+    private int resumedActivities;
+    private boolean registered;
+    private boolean started;
+    private boolean pausePosted;
+
+    private final LatencyHistogram startCallTime = new LatencyHistogram();
+    private final LatencyHistogram pauseCallTime = new LatencyHistogram();
+    private final LatencyHistogram sessionStartTime = new LatencyHistogram();
+    private final LatencyHistogram sessionStopTime = new LatencyHistogram();
+    private final AtomicLong pendingStartNanos = new AtomicLong();
+    private final AtomicLong pendingPauseNanos = new AtomicLong();
+
+    private final AtomicLong starts = new AtomicLong();
+    private final AtomicLong pauses = new AtomicLong();
+    private final AtomicLong transitions = new AtomicLong();
+    private final AtomicLong newSessions = new AtomicLong();
+    private final AtomicLong launchEvents = new AtomicLong();
+    private final AtomicLong closeEvents = new AtomicLong();
+    private volatile String launches;
+    private volatile String previousSessionLength;
+    private volatile boolean lastLaunchAfterCrash;
+
+    private volatile Runnable listener;
+
+    /**
+     * Called on any thread once the Lifecycle extension is registered:
+     * listen for its session events and start if an activity is showing
+     */
+    public void onExtensionRegistered() {
+        MobileCore.registerEventListener(EventType.LIFECYCLE, EventSource.RESPONSE_CONTENT,
+            this::onStartResponse);
+        MobileCore.registerEventListener(EventType.LIFECYCLE, EventSource.APPLICATION_LAUNCH,
+            event -> {
+                launchEvents.incrementAndGet();
+                recordSince(pendingStartNanos, sessionStartTime);
+            });
+        MobileCore.registerEventListener(EventType.LIFECYCLE, EventSource.APPLICATION_CLOSE,
+            event -> {
+                closeEvents.incrementAndGet();
+                recordSince(pendingPauseNanos, sessionStopTime);
+            });
+        mainHandler.post(() -> {
+            registered = true;
+            if (resumedActivities > 0) {
+                start();
+            }
+        });
+    }
+
+    /**
+     * Called whenever a counter changes, on the main thread or an SDK thread
+     */
+    public void setListener(Runnable listener) {
+        this.listener = listener;
+    }
+
+    // =========================================================
+    // ACTIVITY CALLBACKS (main thread)
+    // =========================================================
+
+    public void onActivityResumed() {
+        resumedActivities++;
+        if (pausePosted) {
+            // Back within the delay: another activity, or the same one recreated
+            mainHandler.removeCallbacks(delayedPause);
+            pausePosted = false;
+            transitions.incrementAndGet();
+            notifyListener();
+        } else if (registered) {
+            start();
+        }
+    }
+
+    public void onActivityPaused() {
+        resumedActivities = Math.max(0, resumedActivities - 1);
+        if (resumedActivities == 0 && started) {
+            pausePosted = true;
+            mainHandler.postDelayed(delayedPause, PAUSE_DELAY_MS);
+        }
+    }
+
+    private void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        long callStart = System.nanoTime();
+        pendingStartNanos.set(callStart);
+        MobileCore.lifecycleStart(null);
+        startCallTime.recordNanos(System.nanoTime() - callStart);
+        starts.incrementAndGet();
+        AppLog.d("lifecycleStart called");
+        notifyListener();
+    }
+
+    private void pause() {
+        pausePosted = false;
+        if (!started) {
+            return;
+        }
+        started = false;
+        long callStart = System.nanoTime();
+        pendingPauseNanos.set(callStart);
+        MobileCore.lifecyclePause();
+        pauseCallTime.recordNanos(System.nanoTime() - callStart);
+        pauses.incrementAndGet();
+        AppLog.d("lifecyclePause called");
+        notifyListener();
+    }
+
+    // =========================================================
+    // SDK EVENTS (SDK threads)
+    // =========================================================
+
+    private void onStartResponse(Event event) {
+        Map<String, Object> data = event.getEventData();
+        if (data == null || !SESSION_START.equals(data.get(KEY_SESSION_EVENT))) {
+            return;
+        }
+        newSessions.incrementAndGet();
+        Object contextData = data.get(KEY_CONTEXT_DATA);
+        if (contextData instanceof Map) {
+            Map<?, ?> context = (Map<?, ?>) contextData;
+            launches = stringOrNull(context.get(KEY_LAUNCHES));
+            previousSessionLength = stringOrNull(context.get(KEY_PREVIOUS_SESSION_LENGTH));
+            lastLaunchAfterCrash = context.containsKey(KEY_CRASH);
+        }
+        recordSince(pendingStartNanos, sessionStartTime);
+    }
+
+    /**
+     * Record the time since a pending call, once per call
+     */
+    private void recordSince(AtomicLong pending, LatencyHistogram histogram) {
+        long callNanos = pending.getAndSet(0);
+        if (callNanos != 0) {
+            histogram.recordNanos(System.nanoTime() - callNanos);
+        }
+        notifyListener();
+    }
+
+    private static String stringOrNull(Object value) {
+        return value != null ? String.valueOf(value) : null;
+    }
+
+    private void notifyListener() {
+        Runnable l = listener;
+        if (l != null) {
+            l.run();
+        }
+    }
+
+    // =========================================================
+    // OUTPUT
+    // =========================================================
+
+    public String format() {
+        StringBuilder sb = new StringBuilder(String.format(Locale.US,
+            "Lifecycle: %d start / %d pause call(s), %d activity transition(s) kept in session",
+            starts.get(), pauses.get(), transitions.get()));
+        if (starts.get() == 0) {
+            return sb.append(" (waiting for the Lifecycle extension)").toString();
+        }
+        sb.append(String.format(Locale.US,
+            "\nMain thread: start p50 %.0f µs / max %.0f µs, pause p50 %.0f µs / max %.0f µs",
+            startCallTime.percentileNanos(50) / 1e3, startCallTime.maxNanos() / 1e3,
+            pauseCallTime.percentileNanos(50) / 1e3, pauseCallTime.maxNanos() / 1e3));
+        sb.append(String.format(Locale.US,
+            "\nStart -> session event p50 %.1f ms (%d), pause -> close event p50 %.1f ms (%d)",
+            sessionStartTime.percentileNanos(50) / 1e6, sessionStartTime.count(),
+            sessionStopTime.percentileNanos(50) / 1e6, sessionStopTime.count()));
+        sb.append(String.format(Locale.US, "\nSessions %d (launch events %d, close events %d)",
+            newSessions.get(), launchEvents.get(), closeEvents.get()));
+        if (launches != null) {
+            sb.append(", launches ").append(launches);
+        }
+        if (previousSessionLength != null) {
+            sb.append(", previous session ").append(previousSessionLength).append(" s");
+        }
+        if (lastLaunchAfterCrash) {
+            sb.append(", previous session crashed");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,296 @@
+package com.example.aepvalidation;
+
+import com.adobe.marketing.mobile.ExperienceEvent;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * LoadGenerator - Burst mode that drives Edge.sendEvent at a target rate
+ *
+ * Sends a fixed number of events from a pool of producer threads. Producers
+ * claim event slots from a shared counter and each slot has a scheduled send
+ * time, so the combined rate matches the target regardless of thread count.
+ * Completions are counted from {@link EdgeClient.Callback#onComplete}, which makes
+ * the in-flight backlog (sent - completed) visible while the run progresses.
+ * Each completion is also recorded in the shared {@link LatencyTracker} and
+ * its handles are passed to the {@link EdgeResponseProcessor} to be stored.
+ * Events go through {@link EdgeEventSender}, so a run started before the SDK
+ * is ready is buffered rather than lost. Runs bypass the {@link EventGate},
+ * since flooding is their purpose.
+ */
+public final class LoadGenerator {
+
+    public enum PayloadType { BASIC, COMMERCE }
+
+    /**
+     * Parameters for one load run
+     */
+    public static final class Config {
+        public final int totalEvents;
+        public final double eventsPerSecond; // 0 = as fast as possible
+        public final int producerThreads;
+        public final PayloadType payloadType;
+
+        public Config(int totalEvents, double eventsPerSecond, int producerThreads,
+                      PayloadType payloadType) {
+            if (totalEvents <= 0) {
+                throw new IllegalArgumentException("Event count must be > 0");
+            }
+            if (eventsPerSecond < 0) {
+                throw new IllegalArgumentException("Rate must be >= 0");
+            }
+            if (producerThreads <= 0) {
+                throw new IllegalArgumentException("Thread count must be > 0");
+            }
+            this.totalEvents = totalEvents;
+            this.eventsPerSecond = eventsPerSecond;
+            this.producerThreads = producerThreads;
+            this.payloadType = payloadType;
+        }
+    }
+
+    /**
+     * Point-in-time view of a run's counters
+     */
+    public static final class Stats {
+        public final int totalEvents;
+        public final long sent;
+        public final long completed;
+        public final long rejected;
+        public final long peakInFlight;
+        public final long sendElapsedNanos;
+        public final long elapsedNanos;
+        public final boolean running;
+
+        Stats(int totalEvents, long sent, long completed, long rejected, long peakInFlight,
+              long sendElapsedNanos, long elapsedNanos, boolean running) {
+            this.totalEvents = totalEvents;
+            this.sent = sent;
+            this.completed = completed;
+            this.rejected = rejected;
+            this.peakInFlight = peakInFlight;
+            this.sendElapsedNanos = sendElapsedNanos;
+            this.elapsedNanos = elapsedNanos;
+            this.running = running;
+        }
+
+        public long inFlight() {
+            return sent - completed - rejected;
+        }
+
+        /**
+         * Achieved send rate in events/sec
+         */
+        public double sendRate() {
+            return ratePerSecond(sent, sendElapsedNanos);
+        }
+
+        /**
+         * Achieved completion rate in events/sec
+         */
+        public double completionRate() {
+            return ratePerSecond(completed, elapsedNanos);
+        }
+
+        public String format() {
+            return String.format(Locale.US,
+                "Sent: %d/%d (%.1f ev/s)\nCompleted: %d (%.1f ev/s)\nIn flight: %d (peak %d)\nElapsed: %.2f s%s%s",
+                sent, totalEvents, sendRate(),
+                completed, completionRate(),
+                inFlight(), peakInFlight,
+                elapsedNanos / 1e9,
+                running ? "" : " (finished)",
+                rejected > 0 ? "\nRejected (pre-init buffer full): " + rejected : "");
+        }
+
+        private static double ratePerSecond(long count, long nanos) {
+            return nanos > 0 ? count * 1e9 / nanos : 0;
+        }
+    }
+
+    /**
+     * Called once when every event has completed or the run was stopped
+     */
+    public interface Listener {
+        void onFinished(Stats stats);
+    }
+
+    private final Config config;
+    private final Listener listener;
+    private final LatencyTracker latencyTracker;
+    private final EdgeEventSender sender;
+    private final EdgeResponseProcessor responseProcessor;
+
+    private final AtomicLong nextSlot = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong peakInFlight = new AtomicLong();
+    private final AtomicInteger activeProducers = new AtomicInteger();
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+
+    private volatile boolean stopped;
+    private volatile long startNanos;
+    private volatile long lastSendNanos;
+    private volatile long endNanos;
+    private ExecutorService producers;
+
+    public LoadGenerator(Config config, EdgeEventSender sender, LatencyTracker latencyTracker,
+                         EdgeResponseProcessor responseProcessor, Listener listener) {
+        this.config = config;
+        this.sender = sender;
+        this.latencyTracker = latencyTracker;
+        this.responseProcessor = responseProcessor;
+        this.listener = listener;
+    }
+
+    /**
+     * Start the producer threads. A generator runs once.
+     */
+    public synchronized void start() {
+        if (producers != null) {
+            throw new IllegalStateException("Load run already started");
+        }
+        AppLog.d(() -> "Load run starting: " + config.totalEvents + " events, "
+            + config.eventsPerSecond + " ev/s, " + config.producerThreads + " threads, "
+            + config.payloadType);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        producers = Executors.newFixedThreadPool(config.producerThreads,
+            r -> new Thread(r, "aep-load-" + threadIndex.incrementAndGet()));
+
+        startNanos = System.nanoTime();
+        AppLog.trace(TraceRing.LOAD_RUN_START, config.totalEvents);
+        activeProducers.set(config.producerThreads);
+        for (int i = 0; i < config.producerThreads; i++) {
+            producers.execute(this::produce);
+        }
+        producers.shutdown();
+    }
+
+    /**
+     * Stop sending. Events already handed to Edge still complete and are counted.
+     */
+    public void stop() {
+        stopped = true;
+        synchronized (this) {
+            if (producers != null) {
+                producers.shutdownNow();
+            }
+        }
+        finish();
+    }
+
+    public Stats snapshot() {
+        long now = endNanos != 0 ? endNanos : System.nanoTime();
+        long start = startNanos;
+        long sendEnd = lastSendNanos != 0 ? lastSendNanos : now;
+        return new Stats(config.totalEvents, sent.get(), completed.get(), rejected.get(),
+            peakInFlight.get(),
+            start != 0 ? sendEnd - start : 0,
+            start != 0 ? now - start : 0,
+            !finished.get());
+    }
+
+    private void produce() {
+        long intervalNanos = config.eventsPerSecond > 0
+            ? (long) (1e9 / config.eventsPerSecond) : 0;
+        try {
+            while (!stopped) {
+                long slot = nextSlot.getAndIncrement();
+                if (slot >= config.totalEvents) {
+                    break;
+                }
+                if (intervalNanos > 0) {
+                    long due = startNanos + slot * intervalNanos;
+                    long wait;
+                    while ((wait = due - System.nanoTime()) > 0 && !stopped) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    if (stopped) {
+                        break;
+                    }
+                }
+                sendOne();
+            }
+        } finally {
+            if (activeProducers.decrementAndGet() == 0 && !stopped) {
+                AppLog.d(() -> "Load run: all " + sent.get() + " events handed to Edge");
+                maybeFinish();
+            }
+        }
+    }
+
+    private void sendOne() {
+        String timestamp = EdgePayloads.currentTimestamp();
+        ExperienceEvent.Builder builder = new ExperienceEvent.Builder();
+        String eventType;
+        if (config.payloadType == PayloadType.COMMERCE) {
+            eventType = EdgePayloads.EVENT_TYPE_PRODUCT_VIEWS;
+            builder.setXdmSchema(EdgePayloads.commerceXdm(timestamp))
+                .setData(EdgePayloads.commerceCustomData());
+        } else {
+            eventType = EdgePayloads.EVENT_TYPE_VALIDATION;
+            builder.setXdmSchema(EdgePayloads.basicXdm(timestamp));
+        }
+        ExperienceEvent event = builder.build();
+
+        long inFlight = sent.incrementAndGet() - completed.get() - rejected.get();
+        lastSendNanos = System.nanoTime();
+        updatePeak(inFlight);
+
+        long sendStart = latencyTracker.start();
+        EdgeEventSender.Result result = sender.sendUngated(event, new EdgeClient.Callback() {
+            @Override
+            public void onComplete(List<EdgeClient.Handle> handles) {
+                latencyTracker.record(eventType, sendStart);
+                responseProcessor.submit("Load run event", eventType, handles);
+                completed.incrementAndGet();
+                maybeFinish();
+            }
+
+            @Override
+            public void onFailed(Throwable error) {
+                // Buffered but never sent: counted like a rejection
+                rejected.incrementAndGet();
+                maybeFinish();
+            }
+        });
+        if (result == EdgeEventSender.Result.REJECTED) {
+            // No callback will come for this event
+            rejected.incrementAndGet();
+        }
+    }
+
+    private void updatePeak(long inFlight) {
+        long peak;
+        while (inFlight > (peak = peakInFlight.get())) {
+            if (peakInFlight.compareAndSet(peak, inFlight)) {
+                return;
+            }
+        }
+    }
+
+    private void maybeFinish() {
+        if (activeProducers.get() == 0 && completed.get() + rejected.get() >= sent.get()) {
+            finish();
+        }
+    }
+
+    private void finish() {
+        if (finished.compareAndSet(false, true)) {
+            endNanos = System.nanoTime();
+            Stats stats = snapshot();
+            AppLog.trace(TraceRing.LOAD_RUN_FINISH, stats.completed);
+            AppLog.d(() -> "Load run finished:\n" + stats.format());
+            listener.onFinished(stats);
+        }
+    }
+}
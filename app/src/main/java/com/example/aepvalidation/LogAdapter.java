@@ -0,0 +1,82 @@
+package com.example.aepvalidation;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * LogAdapter - RecyclerView adapter that renders a {@link LogStore}
+ *
+ * Only visible rows are laid out, and each frame's changes are reported as
+ * precise range notifications, so appending a line costs the same whether
+ * the log holds ten entries or ten thousand.
+ */
+public final class LogAdapter extends RecyclerView.Adapter<LogAdapter.EntryViewHolder>
+        implements LogStore.Listener {
+
+    private final LogStore store;
+    private final RecyclerView recyclerView;
+    private final LinearLayoutManager layoutManager;
+
+    public LogAdapter(LogStore store, RecyclerView recyclerView) {
+        this.store = store;
+        this.recyclerView = recyclerView;
+        this.layoutManager = new LinearLayoutManager(recyclerView.getContext());
+
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setItemAnimator(null); // animations would run once per frame during bursts
+        recyclerView.setAdapter(this);
+        store.setListener(this);
+    }
+
+    @Override
+    public EntryViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+            .inflate(R.layout.item_log_entry, parent, false);
+        return new EntryViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(EntryViewHolder holder, int position) {
+        holder.textView.setText(store.get(position));
+    }
+
+    @Override
+    public int getItemCount() {
+        return store.size();
+    }
+
+    @Override
+    public void onLogChanged(int removedFromFront, int inserted, boolean reset) {
+        // Follow the tail only if the user has not scrolled up to read older entries
+        boolean atBottom = !recyclerView.canScrollVertically(1);
+
+        if (reset) {
+            notifyDataSetChanged();
+        } else {
+            if (removedFromFront > 0) {
+                notifyItemRangeRemoved(0, removedFromFront);
+            }
+            if (inserted > 0) {
+                notifyItemRangeInserted(store.size() - inserted, inserted);
+            }
+        }
+
+        if (atBottom && store.size() > 0) {
+            recyclerView.scrollToPosition(store.size() - 1);
+        }
+    }
+
+    static final class EntryViewHolder extends RecyclerView.ViewHolder {
+        final TextView textView;
+
+        EntryViewHolder(View itemView) {
+            super(itemView);
+            this.textView = (TextView) itemView;
+        }
+    }
+}
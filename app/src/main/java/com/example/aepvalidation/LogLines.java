@@ -0,0 +1,25 @@
+package com.example.aepvalidation;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * LogLines - Formats entries for the on-screen event log
+ *
+ * Kept free of Android types so the microbenchmark module can compile it
+ * on the JVM alongside {@link EdgePayloads}.
+ */
+public final class LogLines {
+
+    private LogLines() {
+    }
+
+    /**
+     * Prefix a message with the wall-clock time, e.g. "[14:03:27] message"
+     */
+    public static String stamp(String message) {
+        String timestamp = new SimpleDateFormat("HH:mm:ss", Locale.US).format(new Date());
+        return "[" + timestamp + "] " + message;
+    }
+}
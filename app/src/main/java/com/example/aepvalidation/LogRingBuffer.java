@@ -0,0 +1,69 @@
+package com.example.aepvalidation;
+
+import java.util.Arrays;
+
+/**
+ * LogRingBuffer - Fixed-capacity ring of log lines
+ *
+ * Holds at most {@code capacity} entries. Once full, each new entry overwrites
+ * the oldest one, so memory stays bounded no matter how long a validation
+ * session runs. Not thread-safe: {@link LogStore} only touches it from the
+ * main thread.
+ */
+public final class LogRingBuffer {
+
+    private final String[] entries;
+    private int head; // index of the oldest entry
+    private int size;
+
+    public LogRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0, was " + capacity);
+        }
+        this.entries = new String[capacity];
+    }
+
+    /**
+     * Add an entry, evicting the oldest one when the buffer is full
+     *
+     * @return true if an entry was evicted to make room
+     */
+    public boolean add(String entry) {
+        int capacity = entries.length;
+        if (size < capacity) {
+            entries[(head + size) % capacity] = entry;
+            size++;
+            return false;
+        }
+        entries[head] = entry;
+        head = (head + 1) % capacity;
+        return true;
+    }
+
+    /**
+     * Get the entry at a position, where 0 is the oldest retained entry
+     */
+    public String get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("position " + position + ", size " + size);
+        }
+        return entries[(head + position) % entries.length];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return entries.length;
+    }
+
+    /**
+     * Drop all entries without reallocating the backing array
+     */
+    public void clear() {
+        Arrays.fill(entries, null);
+        head = 0;
+        size = 0;
+    }
+}
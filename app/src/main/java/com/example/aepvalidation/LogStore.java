@@ -0,0 +1,114 @@
+package com.example.aepvalidation;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * LogStore - Bounded, frame-coalesced log model for the on-screen event log
+ *
+ * Any thread may call {@link #append(String)}. Entries are queued and drained
+ * into a {@link LogRingBuffer} on the next Choreographer frame, so a burst of
+ * log lines produces at most one UI update per frame instead of one full-text
+ * rewrite per line.
+ */
+public final class LogStore {
+
+    /**
+     * Notified on the main thread after pending entries have been applied
+     */
+    public interface Listener {
+        /**
+         * @param removedFromFront number of oldest entries evicted
+         * @param inserted         number of entries appended at the end
+         * @param reset            true if the whole contents changed (clear or overflow)
+         */
+        void onLogChanged(int removedFromFront, int inserted, boolean reset);
+    }
+
+    private final LogRingBuffer ring;
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean frameScheduled = new AtomicBoolean(false);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Choreographer.FrameCallback frameCallback = frameTimeNanos -> applyPending();
+    private final Runnable scheduleFrame =
+        () -> Choreographer.getInstance().postFrameCallback(frameCallback);
+
+    private Listener listener;
+
+    public LogStore(int capacity) {
+        this.ring = new LogRingBuffer(capacity);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Queue an entry for display. Safe to call from any thread.
+     */
+    public void append(String entry) {
+        pending.offer(entry);
+        if (frameScheduled.compareAndSet(false, true)) {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                scheduleFrame.run();
+            } else {
+                mainHandler.post(scheduleFrame);
+            }
+        }
+    }
+
+    /**
+     * Drop all retained and pending entries. Main thread only.
+     */
+    public void clear() {
+        pending.clear();
+        ring.clear();
+        if (listener != null) {
+            listener.onLogChanged(0, 0, true);
+        }
+    }
+
+    /**
+     * Get a retained entry, where 0 is the oldest. Main thread only.
+     */
+    public String get(int position) {
+        return ring.get(position);
+    }
+
+    /**
+     * Number of retained entries. Main thread only.
+     */
+    public int size() {
+        return ring.size();
+    }
+
+    public int capacity() {
+        return ring.capacity();
+    }
+
+    private void applyPending() {
+        // Clear the flag before draining so an append racing with this frame
+        // schedules the next one instead of being stranded in the queue
+        frameScheduled.set(false);
+
+        int inserted = 0;
+        int evicted = 0;
+        String entry;
+        while ((entry = pending.poll()) != null) {
+            if (ring.add(entry)) {
+                evicted++;
+            }
+            inserted++;
+        }
+
+        if (inserted == 0 || listener == null) {
+            return;
+        }
+        boolean reset = inserted >= ring.capacity();
+        listener.onLogChanged(reset ? 0 : evicted, reset ? 0 : inserted, reset);
+    }
+}
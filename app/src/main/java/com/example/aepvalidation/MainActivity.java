@@ -1,28 +1,39 @@
 package com.example.aepvalidation;
 
+import android.content.Intent;
 import android.os.Bundle;
-import android.util.Log;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
 import android.view.View;
 import android.widget.Button;
+import android.widget.CheckBox;
+import android.widget.EditText;
 import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.RecyclerView;
 
-import com.adobe.marketing.mobile.AdobeCallbackWithError;
-import com.adobe.marketing.mobile.AdobeError;
 import com.adobe.marketing.mobile.Edge;
-import com.adobe.marketing.mobile.EdgeCallback;
-import com.adobe.marketing.mobile.EdgeEventHandle;
 import com.adobe.marketing.mobile.ExperienceEvent;
-import com.adobe.marketing.mobile.Identity;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * MainActivity - Main UI for AEP Validation App
@@ -34,26 +45,126 @@ import java.util.TimeZone;
  */
 public class MainActivity extends AppCompatActivity {
 
-    private static final String TAG = "AEPValidationApp";
-
     // UI Elements
     private TextView statusTextView;
+    private TextView startupTextView;
+    private TextView lifecycleTextView;
     private TextView ecidTextView;
-    private TextView logTextView;
+    private TextView ecidStatsTextView;
+    private RecyclerView logRecyclerView;
     private Button sendEdgeEventButton;
     private Button sendEdgeEventWithDataButton;
     private Button getEcidButton;
+    private Button queryResponsesButton;
     private Button clearLogButton;
-
-    // Log buffer for display
-    private StringBuilder logBuffer = new StringBuilder();
+    private EditText loadEventCountInput;
+    private EditText loadRateInput;
+    private EditText loadThreadsInput;
+    private CheckBox loadCommercePayloadCheckBox;
+    private Button loadStartStopButton;
+    private TextView loadStatsTextView;
+    private EditText replayTraceFileInput;
+    private EditText replaySpeedInput;
+    private EditText replayMaxInFlightInput;
+    private CheckBox replayRestampCheckBox;
+    private Button replayStartStopButton;
+    private Button replayValidateButton;
+    private TextView replayStatsTextView;
+    private TextView latencyTextView;
+    private TextView payloadTextView;
+    private Button exportLatencyButton;
+    private Button resetLatencyButton;
+    private Button dumpTraceButton;
+    private TextView jankTextView;
+    private TextView sessionLogTextView;
+    private Button exportSessionLogButton;
+
+    // Bounded log model for display, rendered at most once per frame
+    private LogStore logStore;
+
+    // Every log entry is also streamed to disk; survives Clear Log and process death
+    private final SessionLog sessionLog = MainApplication.getSessionLog();
+
+    // Routes sends through the pre-init buffer until the SDK is ready
+    private final EdgeEventSender eventSender = MainApplication.getEventSender();
+
+    // Cached, single-flight ECID lookups and the last answer from each extension
+    private final EcidService ecidService = MainApplication.getEcidService();
+    private final Map<EcidService.Source, String> ecidResults = new EnumMap<>(EcidService.Source.class);
+
+    // Send-to-callback latency per event type, shared with load runs
+    private final LatencyTracker latencyTracker = LatencyTracker.shared();
+
+    // Summarizes EdgeCallback handles in the background and publishes one
+    // batch per window; main-thread time spent applying each batch is tracked
+    private final EdgeResponseProcessor responseProcessor = MainApplication.getResponseProcessor();
+    private final LatencyHistogram uiBatchTime = new LatencyHistogram();
+    private final AtomicLong uiCallbacks = new AtomicLong();
+    private final AtomicLong uiNanos = new AtomicLong();
+
+    // Slow frames and long main-thread messages, charged to the button that caused them
+    private final JankMonitor jankMonitor = MainApplication.getJankMonitor();
+
+    // Process-wide lifecycleStart/lifecyclePause timing; null unless enabled
+    private final LifecycleTracker lifecycleTracker = MainApplication.getLifecycleTracker();
+
+    // Background thread for file exports so the UI thread never touches disk
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+
+    // Named section around the basic send tap, measured by :macrobenchmark
+    static final String TRACE_SEND_TAP = "AEP.sendEdgeEvent";
+
+    // Load generator state; stats are polled while a run is active
+    private static final long LOAD_STATS_INTERVAL_MS = 250;
+    private final Handler uiHandler = new Handler(Looper.getMainLooper());
+    private LoadGenerator loadGenerator;
+    private final Runnable loadStatsPoller = new Runnable() {
+        @Override
+        public void run() {
+            LoadGenerator generator = loadGenerator;
+            if (generator != null) {
+                loadStatsTextView.setText(generator.snapshot().format());
+                refreshLatencyView();
+                uiHandler.postDelayed(this, LOAD_STATS_INTERVAL_MS);
+            }
+        }
+    };
+
+    // Session log queue depth and write rate, and rolling payload sizes
+    // (analyzed on a background thread), polled while visible
+    private static final long BACKGROUND_STATS_INTERVAL_MS = 1000;
+    private final Runnable backgroundStatsPoller = new Runnable() {
+        @Override
+        public void run() {
+            sessionLogTextView.setText(sessionLog.format());
+            PayloadAnalyzer analyzer = eventSender.getAnalyzer();
+            if (analyzer != null) {
+                payloadTextView.setVisibility(View.VISIBLE);
+                payloadTextView.setText(analyzer.format());
+            }
+            uiHandler.postDelayed(this, BACKGROUND_STATS_INTERVAL_MS);
+        }
+    };
+
+    // Trace replay state; stats are polled while a replay is active
+    private TraceReplayer traceReplayer;
+    private final Runnable replayStatsPoller = new Runnable() {
+        @Override
+        public void run() {
+            TraceReplayer replayer = traceReplayer;
+            if (replayer != null) {
+                replayStatsTextView.setText(replayer.snapshot().format());
+                uiHandler.postDelayed(this, LOAD_STATS_INTERVAL_MS);
+            }
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        Log.d(TAG, "MainActivity onCreate");
+        AppLog.d("MainActivity onCreate");
 
         // Initialize UI components
         initializeViews();
@@ -61,8 +172,28 @@ public class MainActivity extends AppCompatActivity {
         // Set up button click listeners
         setupButtonListeners();
         
-        // Check and display AEP initialization status
+        // Check and display AEP initialization status, and again once it settles
+        CompletableFuture<Void> readiness = MainApplication.getSdkReadiness();
+        boolean wasSettled = readiness.isDone();
         checkAepStatus();
+        if (!wasSettled) {
+            readiness.whenComplete((ignored, error) -> runOnUiThread(() -> {
+                if (!isDestroyed()) {
+                    checkAepStatus();
+                }
+            }));
+        }
+
+        // Histograms and ECID cache counters are process-wide, so show anything
+        // recorded before a recreate
+        refreshLatencyView();
+        refreshEcidView();
+
+        // Show the SDK startup breakdown; later phases arrive from SDK threads
+        MainApplication.getStartupTimeline().setListener(
+            phase -> runOnUiThread(this::refreshStartupView));
+        responseProcessor.setListener(this::onResponseBatch);
+        refreshStartupView();
     }
 
     /**
@@ -70,14 +201,42 @@ public class MainActivity extends AppCompatActivity {
      */
     private void initializeViews() {
         statusTextView = findViewById(R.id.statusTextView);
+        startupTextView = findViewById(R.id.startupTextView);
+        lifecycleTextView = findViewById(R.id.lifecycleTextView);
         ecidTextView = findViewById(R.id.ecidTextView);
-        logTextView = findViewById(R.id.logTextView);
+        ecidStatsTextView = findViewById(R.id.ecidStatsTextView);
+        logRecyclerView = findViewById(R.id.logRecyclerView);
         sendEdgeEventButton = findViewById(R.id.sendEdgeEventButton);
         sendEdgeEventWithDataButton = findViewById(R.id.sendEdgeEventWithDataButton);
         getEcidButton = findViewById(R.id.getEcidButton);
+        queryResponsesButton = findViewById(R.id.queryResponsesButton);
         clearLogButton = findViewById(R.id.clearLogButton);
-
-        Log.d(TAG, "Views initialized");
+        loadEventCountInput = findViewById(R.id.loadEventCountInput);
+        loadRateInput = findViewById(R.id.loadRateInput);
+        loadThreadsInput = findViewById(R.id.loadThreadsInput);
+        loadCommercePayloadCheckBox = findViewById(R.id.loadCommercePayloadCheckBox);
+        loadStartStopButton = findViewById(R.id.loadStartStopButton);
+        loadStatsTextView = findViewById(R.id.loadStatsTextView);
+        replayTraceFileInput = findViewById(R.id.replayTraceFileInput);
+        replaySpeedInput = findViewById(R.id.replaySpeedInput);
+        replayMaxInFlightInput = findViewById(R.id.replayMaxInFlightInput);
+        replayRestampCheckBox = findViewById(R.id.replayRestampCheckBox);
+        replayStartStopButton = findViewById(R.id.replayStartStopButton);
+        replayValidateButton = findViewById(R.id.replayValidateButton);
+        replayStatsTextView = findViewById(R.id.replayStatsTextView);
+        latencyTextView = findViewById(R.id.latencyTextView);
+        payloadTextView = findViewById(R.id.payloadTextView);
+        exportLatencyButton = findViewById(R.id.exportLatencyButton);
+        resetLatencyButton = findViewById(R.id.resetLatencyButton);
+        dumpTraceButton = findViewById(R.id.dumpTraceButton);
+        jankTextView = findViewById(R.id.jankTextView);
+        sessionLogTextView = findViewById(R.id.sessionLogTextView);
+        exportSessionLogButton = findViewById(R.id.exportSessionLogButton);
+
+        logStore = new LogStore(getResources().getInteger(R.integer.log_capacity));
+        new LogAdapter(logStore, logRecyclerView);
+
+        AppLog.d("Views initialized");
     }
 
     /**
@@ -87,9 +246,19 @@ public class MainActivity extends AppCompatActivity {
         sendEdgeEventButton.setOnClickListener(v -> onSendEdgeEventClicked());
         sendEdgeEventWithDataButton.setOnClickListener(v -> onSendEdgeEventWithDataClicked());
         getEcidButton.setOnClickListener(v -> onGetEcidClicked());
+        queryResponsesButton.setOnClickListener(v ->
+            startActivity(new Intent(this, ResponseQueryActivity.class)));
         clearLogButton.setOnClickListener(v -> onClearLogClicked());
-
-        Log.d(TAG, "Button listeners set up");
+        loadStartStopButton.setOnClickListener(v -> onLoadStartStopClicked());
+        replayStartStopButton.setOnClickListener(v -> onReplayStartStopClicked());
+        replayValidateButton.setOnClickListener(v -> onValidateTraceClicked());
+        exportLatencyButton.setOnClickListener(v -> onExportLatencyClicked());
+        resetLatencyButton.setOnClickListener(v -> onResetLatencyClicked());
+        dumpTraceButton.setOnClickListener(v -> onDumpTraceClicked());
+        jankTextView.setOnClickListener(v -> onJankReportClicked());
+        exportSessionLogButton.setOnClickListener(v -> onExportSessionLogClicked());
+
+        AppLog.d("Button listeners set up");
     }
 
     /**
@@ -100,7 +269,7 @@ public class MainActivity extends AppCompatActivity {
         boolean isInitialized = MainApplication.isAepInitialized();
         String error = MainApplication.getInitializationError();
 
-        Log.d(TAG, "Checking AEP status - Initialized: " + isInitialized);
+        AppLog.d("Checking AEP status - Initialized: ", isInitialized);
 
         if (error != null) {
             updateStatus("❌ AEP Init Error: " + error);
@@ -112,6 +281,16 @@ public class MainActivity extends AppCompatActivity {
             updateStatus("⏳ AEP SDK Initializing...");
             appendLog("SDK is initializing with Environment ID: " + envId);
         }
+        String deferredError = MainApplication.getDeferredStageError();
+        if (deferredError != null) {
+            appendLog("WARNING: Extension registration failed (" + deferredError
+                + "); Edge is unaffected");
+        }
+
+        EventJournal journal = MainApplication.getEventJournal();
+        if (journal != null) {
+            appendLog(journal.format());
+        }
 
         // Check if placeholder is still set
         if ("YOUR_ENV_ID_HERE".equals(envId)) {
@@ -124,57 +303,52 @@ public class MainActivity extends AppCompatActivity {
      * Sends a basic validation event to Adobe Edge
      */
     private void onSendEdgeEventClicked() {
-        Log.d(TAG, "========================================");
-        Log.d(TAG, "Send Edge Event button clicked");
-        Log.d(TAG, "========================================");
+        jankMonitor.beginAction("send event");
+        Trace.beginSection(TRACE_SEND_TAP);
+        try {
+            sendBasicEdgeEvent();
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    private void sendBasicEdgeEvent() {
+        AppLog.banner("Send Edge Event button clicked");
 
         updateStatus("📤 Sending Edge Event...");
         appendLog("Sending basic Edge event...");
 
         try {
-            // Build XDM data map
-            Map<String, Object> xdmData = new HashMap<>();
-            
-            // Required: eventType
-            xdmData.put("eventType", "mobile.validation");
-            
-            // Required: timestamp in ISO 8601 format
-            xdmData.put("timestamp", getCurrentTimestamp());
+            // Build XDM data map (eventType + ISO 8601 timestamp)
+            Map<String, Object> xdmData = EdgePayloads.basicXdm(getCurrentTimestamp());
 
-            Log.d(TAG, "XDM Data: " + xdmData.toString());
+            AppLog.d("XDM Data: ", xdmData);
 
             // Create the ExperienceEvent
             ExperienceEvent experienceEvent = new ExperienceEvent.Builder()
                 .setXdmSchema(xdmData)
                 .build();
 
-            // Send the event
-            Edge.sendEvent(experienceEvent, new EdgeCallback() {
+            // Send the event, stamping the start for round-trip latency
+            long sendStart = latencyTracker.start();
+            EdgeEventSender.Result result = eventSender.send(experienceEvent, new EdgeClient.Callback() {
                 @Override
-                public void onComplete(List<EdgeEventHandle> handles) {
-                    runOnUiThread(() -> {
-                        Log.d(TAG, "========================================");
-                        Log.d(TAG, "Edge event sent SUCCESS");
-                        Log.d(TAG, "Handles received: " + (handles != null ? handles.size() : 0));
-                        Log.d(TAG, "========================================");
-
-                        updateStatus("✅ Edge Event Sent Successfully!");
-                        appendLog("SUCCESS: Edge event sent");
-                        
-                        if (handles != null && !handles.isEmpty()) {
-                            for (EdgeEventHandle handle : handles) {
-                                String handleInfo = "Handle - Type: " + handle.getType();
-                                Log.d(TAG, handleInfo);
-                                appendLog(handleInfo);
-                            }
-                        }
-                    });
+                public void onComplete(List<EdgeClient.Handle> handles) {
+                    latencyTracker.record(EdgePayloads.EVENT_TYPE_VALIDATION, sendStart);
+                    AppLog.d("Edge event sent SUCCESS, handles received: ", (handles != null ? handles.size() : 0));
+                    // Handle payloads are summarized off the main thread
+                    responseProcessor.submit("Edge event", EdgePayloads.EVENT_TYPE_VALIDATION, handles);
                 }
-            });
+
+                @Override
+                public void onFailed(Throwable error) {
+                    reportNotSent("Edge event", error);
+                }
+            }, this::reportInvalid);
+            reportSendResult(result);
 
         } catch (Exception e) {
-            Log.e(TAG, "Error sending Edge event: " + e.getMessage());
-            e.printStackTrace();
+            AppLog.e("Error sending Edge event: " + e.getMessage(), e);
             updateStatus("❌ Error: " + e.getMessage());
             appendLog("ERROR: " + e.getMessage());
         }
@@ -185,9 +359,8 @@ public class MainActivity extends AppCompatActivity {
      * Sends a more complex event with custom data
      */
     private void onSendEdgeEventWithDataClicked() {
-        Log.d(TAG, "========================================");
-        Log.d(TAG, "Send Edge Event with Data button clicked");
-        Log.d(TAG, "========================================");
+        jankMonitor.beginAction("send event with data");
+        AppLog.banner("Send Edge Event with Data button clicked");
 
         updateStatus("📤 Sending Edge Event with Product Data...");
         appendLog("Sending Edge event with product data...");
@@ -197,56 +370,16 @@ public class MainActivity extends AppCompatActivity {
             // BUILD XDM DATA
             // This follows XDM schema structure
             // =========================================================
-            Map<String, Object> xdmData = new HashMap<>();
-            
-            // Required fields
-            xdmData.put("eventType", "commerce.productViews");
-            xdmData.put("timestamp", getCurrentTimestamp());
-
-            // Commerce data (XDM standard)
-            Map<String, Object> commerce = new HashMap<>();
-            Map<String, Object> productViews = new HashMap<>();
-            productViews.put("value", 1);
-            commerce.put("productListViews", productViews);
-            xdmData.put("commerce", commerce);
-
-            // Product list items (XDM standard)
-            Map<String, Object> productItem = new HashMap<>();
-            productItem.put("SKU", "PROD-12345");
-            productItem.put("name", "Test Product");
-            productItem.put("quantity", 1);
-            productItem.put("priceTotal", 99.99);
-            
-            java.util.List<Map<String, Object>> productListItems = new java.util.ArrayList<>();
-            productListItems.add(productItem);
-            xdmData.put("productListItems", productListItems);
-
-            Log.d(TAG, "XDM Data: " + xdmData.toString());
+            Map<String, Object> xdmData = EdgePayloads.commerceXdm(getCurrentTimestamp());
+
+            AppLog.d("XDM Data: ", xdmData);
 
             // =========================================================
             // BUILD CUSTOM DATA (non-XDM, will go to custom data path)
             // =========================================================
-            Map<String, Object> customData = new HashMap<>();
-
-            // App info
-            Map<String, Object> appInfo = new HashMap<>();
-            appInfo.put("name", "AEPValidationApp");
-            appInfo.put("version", "1.0");
-            customData.put("app", appInfo);
+            Map<String, Object> customData = EdgePayloads.commerceCustomData();
 
-            // User info (dummy data for testing)
-            Map<String, Object> userInfo = new HashMap<>();
-            userInfo.put("testUserId", "U12345");
-            userInfo.put("segment", "dummy_segment");
-            customData.put("user", userInfo);
-
-            // Action info
-            Map<String, Object> actionInfo = new HashMap<>();
-            actionInfo.put("screen", "Main");
-            actionInfo.put("button", "Send Edge Event with Data");
-            customData.put("action", actionInfo);
-
-            Log.d(TAG, "Custom Data: " + customData.toString());
+            AppLog.d("Custom Data: ", customData);
 
             // =========================================================
             // CREATE AND SEND THE EVENT
@@ -256,109 +389,527 @@ public class MainActivity extends AppCompatActivity {
                 .setData(customData)  // Custom data goes here
                 .build();
 
-            Edge.sendEvent(experienceEvent, new EdgeCallback() {
+            long sendStart = latencyTracker.start();
+            EdgeEventSender.Result result = eventSender.send(experienceEvent, new EdgeClient.Callback() {
                 @Override
-                public void onComplete(List<EdgeEventHandle> handles) {
-                    runOnUiThread(() -> {
-                        Log.d(TAG, "========================================");
-                        Log.d(TAG, "Edge event with data sent SUCCESS");
-                        Log.d(TAG, "Handles received: " + (handles != null ? handles.size() : 0));
-                        Log.d(TAG, "========================================");
-
-                        updateStatus("✅ Edge Event with Data Sent!");
-                        appendLog("SUCCESS: Edge event with product data sent");
-                        
-                        if (handles != null && !handles.isEmpty()) {
-                            for (EdgeEventHandle handle : handles) {
-                                String payload = handle.getPayload() != null ? 
-                                    handle.getPayload().toString() : "no payload";
-                                String handleInfo = "Handle Type: " + handle.getType() + 
-                                    ", Payload: " + payload;
-                                Log.d(TAG, handleInfo);
-                                appendLog(handleInfo);
-                            }
-                        }
-                    });
+                public void onComplete(List<EdgeClient.Handle> handles) {
+                    latencyTracker.record(EdgePayloads.EVENT_TYPE_PRODUCT_VIEWS, sendStart);
+                    AppLog.d("Edge event with data sent SUCCESS, handles received: ", (handles != null ? handles.size() : 0));
+                    responseProcessor.submit("Edge event with product data",
+                        EdgePayloads.EVENT_TYPE_PRODUCT_VIEWS, handles);
                 }
-            });
+
+                @Override
+                public void onFailed(Throwable error) {
+                    reportNotSent("Edge event with product data", error);
+                }
+            }, this::reportInvalid);
+            reportSendResult(result);
 
         } catch (Exception e) {
-            Log.e(TAG, "Error sending Edge event with data: " + e.getMessage());
-            e.printStackTrace();
+            AppLog.e("Error sending Edge event with data: " + e.getMessage(), e);
             updateStatus("❌ Error: " + e.getMessage());
             appendLog("ERROR: " + e.getMessage());
         }
     }
 
+    /**
+     * Apply one batch of summarized Edge responses to the UI
+     * Called on the processor thread; the UI work is a single post per batch
+     */
+    private void onResponseBatch(EdgeResponseProcessor.Batch batch) {
+        StringBuilder entry = new StringBuilder("SUCCESS: ").append(batch.format());
+        if (batch.storedRows > 0) {
+            entry.append(String.format(Locale.US, " (stored in %.1f ms)", batch.storeNanos / 1e6));
+        }
+        for (String detail : batch.details) {
+            entry.append("\n  Handle - ").append(detail);
+        }
+        if (batch.handles > batch.details.size()) {
+            entry.append("\n  … ").append(batch.handles - batch.details.size()).append(" more");
+        }
+        String logEntry = entry.toString();
+        String status = batch.responses == 1
+            ? "✅ " + batch.lastLabel + " sent successfully!"
+            : "✅ " + batch.responses + " Edge responses received";
+
+        runOnUiThread(() -> {
+            long start = System.nanoTime();
+            statusTextView.setText(status);
+            appendLog(logEntry);
+            refreshLatencyView();
+            long elapsed = System.nanoTime() - start;
+            uiBatchTime.recordNanos(elapsed);
+            uiCallbacks.addAndGet(batch.responses);
+            uiNanos.addAndGet(elapsed);
+        });
+    }
+
+    /**
+     * A buffered event that was never sent; it is not timed or summarized.
+     * Called on a client thread.
+     */
+    private void reportNotSent(String label, Throwable error) {
+        AppLog.w(label + " not sent: " + error.getMessage());
+        updateStatus("❌ " + label + " not sent");
+        appendLog("ERROR: " + label + " not sent - SDK initialization failed: " + error.getMessage());
+    }
+
+    /**
+     * Tell the user when an event was buffered or rejected instead of sent.
+     * INVALID is reported by {@link #reportInvalid} with the event's problems.
+     */
+    private void reportSendResult(EdgeEventSender.Result result) {
+        if (result == EdgeEventSender.Result.BUFFERED) {
+            AppLog.d("SDK not ready, event buffered");
+            appendLog("SDK not ready yet - event buffered (" + eventSender.pendingCount()
+                + " pending), will be sent once initialized");
+        } else if (result == EdgeEventSender.Result.REJECTED && eventSender.isFailed()) {
+            updateStatus("❌ SDK failed to initialize, event not sent");
+            appendLog("ERROR: SDK initialization failed - event not sent");
+        } else if (result == EdgeEventSender.Result.REJECTED) {
+            updateStatus("❌ Pre-init buffer full, event not sent");
+            appendLog("ERROR: SDK not ready and pre-init buffer is full - event not sent");
+        } else if (result == EdgeEventSender.Result.THROTTLED) {
+            updateStatus("🚦 Event throttled (rate limit)");
+            appendLog("Event dropped: over the rate limit for its event type. " + gateSummary());
+        } else if (result == EdgeEventSender.Result.DUPLICATE) {
+            updateStatus("🚦 Duplicate event suppressed");
+            appendLog("Event dropped: identical to one sent moments ago. " + gateSummary());
+        }
+    }
+
+    /**
+     * An event dropped because its XDM does not match the schema
+     */
+    private void reportInvalid(List<String> errors) {
+        updateStatus("🧩 Event failed XDM validation");
+        appendLog("Event dropped: XDM does not match the schema: " + String.join("; ", errors));
+    }
+
+    private String gateSummary() {
+        EventGate gate = eventSender.getGate();
+        return gate != null ? gate.format() : "";
+    }
+
     /**
      * Handle "Get ECID" button click
-     * Retrieves the Experience Cloud ID from Edge Identity extension
+     * Retrieves the Experience Cloud ID from both Identity and Edge Identity,
+     * served from the ECID cache when it is still fresh
      */
     private void onGetEcidClicked() {
-        Log.d(TAG, "========================================");
-        Log.d(TAG, "Get ECID button clicked");
-        Log.d(TAG, "========================================");
+        jankMonitor.beginAction("get ECID");
+        AppLog.banner("Get ECID button clicked");
 
         updateStatus("🔍 Fetching ECID...");
-        appendLog("Requesting ECID from Identity extension...");
+        appendLog("Requesting ECID from Identity and Edge Identity...");
 
-        try {
-            Identity.getExperienceCloudId(new AdobeCallbackWithError<String>() {
+        for (EcidService.Source source : EcidService.Source.values()) {
+            ecidService.get(source, new EcidService.Callback() {
                 @Override
-                public void call(String ecid) {
+                public void onEcid(String ecid, boolean fromCache) {
                     runOnUiThread(() -> {
-                        Log.d(TAG, "========================================");
-                        Log.d(TAG, "ECID retrieved: " + ecid);
-                        Log.d(TAG, "========================================");
+                        String origin = fromCache ? " (cached)" : "";
+                        AppLog.banner("ECID retrieved from " + source.label + origin + ": " + ecid);
 
                         if (ecid != null && !ecid.isEmpty()) {
-                            ecidTextView.setText("ECID: " + ecid);
+                            ecidResults.put(source, ecid);
                             updateStatus("✅ ECID Retrieved");
-                            appendLog("ECID: " + ecid);
+                            appendLog("ECID (" + source.label + ")" + origin + ": " + ecid);
                         } else {
-                            ecidTextView.setText("ECID: (empty or null)");
+                            ecidResults.put(source, "(empty or null)");
                             updateStatus("⚠️ ECID is empty");
-                            appendLog("WARNING: ECID returned empty or null");
+                            appendLog("WARNING: " + source.label + " ECID returned empty or null");
                         }
+                        refreshEcidView();
                     });
                 }
 
                 @Override
-                public void fail(AdobeError adobeError) {
+                public void onError(String errorMsg) {
                     runOnUiThread(() -> {
-                        String errorMsg = adobeError != null ? 
-                            adobeError.getErrorName() : "Unknown error";
-                        
-                        Log.e(TAG, "========================================");
-                        Log.e(TAG, "Failed to get ECID: " + errorMsg);
-                        Log.e(TAG, "========================================");
-
-                        ecidTextView.setText("ECID: Error - " + errorMsg);
+                        AppLog.errorBanner("Failed to get ECID from " + source.label + ": " + errorMsg);
+
+                        ecidResults.put(source, "Error - " + errorMsg);
                         updateStatus("❌ Failed to get ECID");
-                        appendLog("ERROR getting ECID: " + errorMsg);
+                        appendLog("ERROR getting ECID (" + source.label + "): " + errorMsg);
+                        refreshEcidView();
                     });
                 }
             });
-        } catch (Exception e) {
-            Log.e(TAG, "Exception getting ECID: " + e.getMessage());
-            e.printStackTrace();
-            updateStatus("❌ Error: " + e.getMessage());
-            appendLog("EXCEPTION: " + e.getMessage());
         }
     }
 
+    /**
+     * Redraw both ECIDs and the cache counters. Main thread only.
+     */
+    private void refreshEcidView() {
+        StringBuilder text = new StringBuilder();
+        for (EcidService.Source source : EcidService.Source.values()) {
+            String value = ecidResults.get(source);
+            if (text.length() > 0) {
+                text.append('\n');
+            }
+            text.append(source.label).append(": ").append(value != null ? value : "(not retrieved yet)");
+        }
+        ecidTextView.setText(text);
+        ecidStatsTextView.setText(ecidService.format());
+    }
+
+    /**
+     * Handle "Start/Stop Load Run" button click
+     * Starts a burst of Edge events, or stops the run in progress
+     */
+    private void onLoadStartStopClicked() {
+        if (loadGenerator != null) {
+            AppLog.d("Stop Load Run button clicked");
+            loadGenerator.stop();
+            return;
+        }
+
+        AppLog.banner("Start Load Run button clicked");
+
+        LoadGenerator.Config config;
+        try {
+            config = new LoadGenerator.Config(
+                Integer.parseInt(loadEventCountInput.getText().toString().trim()),
+                Double.parseDouble(loadRateInput.getText().toString().trim()),
+                Integer.parseInt(loadThreadsInput.getText().toString().trim()),
+                loadCommercePayloadCheckBox.isChecked()
+                    ? LoadGenerator.PayloadType.COMMERCE : LoadGenerator.PayloadType.BASIC);
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException is an IllegalArgumentException too
+            updateStatus("❌ Invalid load settings: " + e.getMessage());
+            appendLog("ERROR: Invalid load settings: " + e.getMessage());
+            return;
+        }
+
+        updateStatus("🚀 Load run in progress...");
+        appendLog("Load run started: " + config.totalEvents + " events at "
+            + (config.eventsPerSecond > 0 ? config.eventsPerSecond + " ev/s" : "max rate")
+            + " from " + config.producerThreads + " thread(s), " + config.payloadType + " payload");
+
+        loadGenerator = new LoadGenerator(config, eventSender, latencyTracker, responseProcessor, stats -> runOnUiThread(() -> {
+            loadGenerator = null;
+            uiHandler.removeCallbacks(loadStatsPoller);
+            loadStatsTextView.setText(stats.format());
+            refreshLatencyView();
+            loadStartStopButton.setText("🚀 Start Load Run");
+            updateStatus("✅ Load run finished");
+            appendLog(String.format(Locale.US,
+                "Load run finished: %d sent (%.1f ev/s), %d completed, peak in flight %d",
+                stats.sent, stats.sendRate(), stats.completed, stats.peakInFlight));
+        }));
+        loadStartStopButton.setText("⏹️ Stop Load Run");
+        loadGenerator.start();
+        uiHandler.post(loadStatsPoller);
+    }
+
+    /**
+     * Handle "Start/Stop Replay" button click
+     * Streams a JSONL trace from files/traces/ (or the bundled assets) through Edge
+     */
+    private void onReplayStartStopClicked() {
+        if (traceReplayer != null) {
+            AppLog.d("Stop Replay button clicked");
+            traceReplayer.stop();
+            return;
+        }
+
+        AppLog.banner("Start Replay button clicked");
+
+        String traceName = replayTraceFileInput.getText().toString().trim();
+        TraceReplayer.Config config;
+        try {
+            config = new TraceReplayer.Config(
+                Double.parseDouble(replaySpeedInput.getText().toString().trim()),
+                Integer.parseInt(replayMaxInFlightInput.getText().toString().trim()),
+                replayRestampCheckBox.isChecked());
+        } catch (IllegalArgumentException e) {
+            updateStatus("❌ Invalid replay settings: " + e.getMessage());
+            appendLog("ERROR: Invalid replay settings: " + e.getMessage());
+            return;
+        }
+
+        TraceReplayer.TraceSource source = traceSource(traceName);
+
+        updateStatus("▶️ Trace replay in progress...");
+        appendLog("Trace replay started: " + traceName + " at "
+            + (config.speed > 0 ? config.speed + "x" : "max speed")
+            + ", max " + config.maxInFlight + " in flight");
+
+        traceReplayer = new TraceReplayer(config, source, eventSender, latencyTracker, responseProcessor,
+            stats -> runOnUiThread(() -> {
+                traceReplayer = null;
+                uiHandler.removeCallbacks(replayStatsPoller);
+                replayStatsTextView.setText(stats.format());
+                refreshLatencyView();
+                replayStartStopButton.setText("▶️ Start Replay");
+                updateStatus(stats.error == null ? "✅ Trace replay finished" : "❌ Trace replay failed");
+                appendLog(String.format(Locale.US,
+                    "Trace replay finished: %d sent (%.1f ev/s), %d completed, %d skipped, completion lag p99 %.1f ms",
+                    stats.sent, stats.sendRate(), stats.completed, stats.skipped,
+                    stats.completionLagP99Nanos / 1e6));
+            }));
+        replayStartStopButton.setText("⏹️ Stop Replay");
+        traceReplayer.start();
+        uiHandler.post(replayStatsPoller);
+    }
+
+    /**
+     * Handle "Validate XDM" button click
+     * Checks every event in the trace against the XDM schema, in parallel
+     */
+    private void onValidateTraceClicked() {
+        AppLog.d("Validate XDM button clicked");
+
+        XdmValidator validator = eventSender.getValidator();
+        if (validator == null) {
+            appendLog("XDM validation is off or the schema is still loading");
+            return;
+        }
+        String traceName = replayTraceFileInput.getText().toString().trim();
+        TraceReplayer.TraceSource source = traceSource(traceName);
+        updateStatus("🧩 Validating " + traceName + "...");
+
+        ioExecutor.execute(() -> {
+            try (TraceReplayer.XdmReader xdm = TraceReplayer.readXdm(source)) {
+                XdmValidator.BatchResult result = validator.validateAll(xdm);
+                appendLog("XDM validation of " + traceName + ": " + result.format());
+                updateStatus(result.invalid == 0
+                    ? "✅ All " + result.events + " trace events match the schema"
+                    : "🧩 " + result.invalid + " of " + result.events + " trace events invalid");
+                runOnUiThread(this::refreshLatencyView);
+            } catch (IOException | UncheckedIOException e) {
+                AppLog.e("Trace validation failed: " + e.getMessage());
+                appendLog("ERROR: Trace validation failed: " + e.getMessage());
+                updateStatus("❌ Trace validation failed");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    /**
+     * A trace in files/traces/, falling back to the bundled sample of the same name
+     */
+    private TraceReplayer.TraceSource traceSource(String traceName) {
+        File traceDir = getExternalFilesDir("traces");
+        File traceFile = traceDir != null ? new File(traceDir, traceName) : null;
+        return new TraceReplayer.TraceSource() {
+            @Override
+            public String name() {
+                return traceName;
+            }
+
+            @Override
+            public InputStream open() throws IOException {
+                // A file pushed to files/traces/ wins over the bundled sample
+                if (traceFile != null && traceFile.isFile()) {
+                    return new FileInputStream(traceFile);
+                }
+                return getAssets().open("traces/" + traceName);
+            }
+        };
+    }
+
+    /**
+     * Handle "Export CSV/JSON" button click
+     * Writes the latency histograms to app-specific storage off the UI thread
+     */
+    private void onExportLatencyClicked() {
+        AppLog.d("Export Latency button clicked");
+
+        String sdkVersion = "edge-" + Edge.extensionVersion();
+        String stamp = exportStamp();
+        File exportDir = exportDir();
+
+        ioExecutor.execute(() -> {
+            File csv = new File(exportDir, "latency-" + stamp + ".csv");
+            File json = new File(exportDir, "latency-" + stamp + ".json");
+            try {
+                if (!exportDir.isDirectory() && !exportDir.mkdirs()) {
+                    throw new IOException("Cannot create " + exportDir);
+                }
+                try (Writer out = new FileWriter(csv)) {
+                    latencyTracker.writeCsv(out, sdkVersion);
+                }
+                try (Writer out = new FileWriter(json)) {
+                    latencyTracker.writeJson(out, sdkVersion);
+                }
+                AppLog.d(() -> "Latency exported to " + csv + " and " + json);
+                appendLog("Latency exported: " + csv.getAbsolutePath());
+                appendLog("Latency exported: " + json.getAbsolutePath());
+                updateStatus("✅ Latency exported");
+            } catch (IOException e) {
+                AppLog.e("Latency export failed: " + e.getMessage());
+                appendLog("ERROR: Latency export failed: " + e.getMessage());
+                updateStatus("❌ Latency export failed");
+            }
+        });
+    }
+
+    /**
+     * Handle "Dump Trace" button click
+     * Writes the binary trace ring as text to the exports directory
+     */
+    private void onDumpTraceClicked() {
+        AppLog.d("Dump Trace button clicked");
+
+        TraceRing trace = AppLog.getTrace();
+        if (trace == null) {
+            appendLog("Trace ring is disabled (trace_ring_capacity = 0)");
+            return;
+        }
+        File exportDir = exportDir();
+        File file = new File(exportDir, "trace-" + exportStamp() + ".txt");
+
+        ioExecutor.execute(() -> {
+            try {
+                if (!exportDir.isDirectory() && !exportDir.mkdirs()) {
+                    throw new IOException("Cannot create " + exportDir);
+                }
+                try (Writer out = new FileWriter(file)) {
+                    trace.dump(out);
+                }
+                appendLog("Trace dumped (" + trace.recorded() + " recorded): " + file.getAbsolutePath());
+                updateStatus("✅ Trace dumped");
+            } catch (IOException e) {
+                AppLog.e("Trace dump failed: " + e.getMessage());
+                appendLog("ERROR: Trace dump failed: " + e.getMessage());
+                updateStatus("❌ Trace dump failed");
+            }
+        });
+    }
+
+    /**
+     * Handle jank counter tap: save the full jank report
+     */
+    private void onJankReportClicked() {
+        AppLog.d("Jank counter clicked");
+
+        // Built here: the monitor's state belongs to the main thread
+        String report = jankMonitor.report();
+        File exportDir = exportDir();
+        File file = new File(exportDir, "jank-" + exportStamp() + ".txt");
+
+        ioExecutor.execute(() -> {
+            try {
+                if (!exportDir.isDirectory() && !exportDir.mkdirs()) {
+                    throw new IOException("Cannot create " + exportDir);
+                }
+                try (Writer out = new FileWriter(file)) {
+                    out.write(report);
+                }
+                appendLog("Jank report saved: " + file.getAbsolutePath());
+                updateStatus("✅ Jank report saved");
+            } catch (IOException e) {
+                AppLog.e("Jank report failed: " + e.getMessage());
+                appendLog("ERROR: Jank report failed: " + e.getMessage());
+                updateStatus("❌ Jank report failed");
+            }
+        });
+    }
+
+    /**
+     * Handle "Export Log" button click
+     * Joins all session log segments into one .gz file in the exports directory
+     */
+    private void onExportSessionLogClicked() {
+        AppLog.d("Export Session Log button clicked");
+
+        File file = new File(exportDir(), "session-" + exportStamp() + ".log.gz");
+        // export() waits for queue space, so it is called off the UI thread
+        ioExecutor.execute(() -> sessionLog.export(file, new SessionLog.ExportCallback() {
+            @Override
+            public void onExported(File exported, int segments, long bytes) {
+                appendLog(String.format(Locale.US, "Session log exported (%d segment(s), %.1f KB): %s",
+                    segments, bytes / 1024.0, exported.getAbsolutePath()));
+                updateStatus("✅ Session log exported");
+            }
+
+            @Override
+            public void onError(IOException error) {
+                AppLog.e("Session log export failed: " + error.getMessage());
+                appendLog("ERROR: Session log export failed: " + error.getMessage());
+                updateStatus("❌ Session log export failed");
+            }
+        }));
+    }
+
+    private File exportDir() {
+        File dir = getExternalFilesDir("exports");
+        return dir != null ? dir : new File(getFilesDir(), "exports");
+    }
+
+    private static String exportStamp() {
+        return new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date());
+    }
+
+    /**
+     * Handle "Reset" latency button click
+     */
+    private void onResetLatencyClicked() {
+        AppLog.d("Reset Latency button clicked");
+        latencyTracker.reset();
+        uiBatchTime.reset();
+        uiCallbacks.set(0);
+        uiNanos.set(0);
+        XdmValidator validator = eventSender.getValidator();
+        if (validator != null) {
+            validator.resetStats();
+        }
+        refreshLatencyView();
+        appendLog("Latency histograms reset");
+    }
+
+    /**
+     * Redraw the latency summary. Main thread only.
+     */
+    private void refreshLatencyView() {
+        String summary = latencyTracker.summary();
+        long callbacks = uiCallbacks.get();
+        if (callbacks > 0) {
+            summary += String.format(Locale.US,
+                "\nUI thread: %.1f µs/callback avg, %.2f ms/batch p99 (%d callbacks, %d batches)",
+                uiNanos.get() / 1e3 / callbacks, uiBatchTime.percentileNanos(99) / 1e6,
+                callbacks, uiBatchTime.count());
+        }
+        XdmValidator validator = eventSender.getValidator();
+        if (validator != null && validator.checkedCount() > 0) {
+            summary += "\n" + validator.format();
+        }
+        latencyTextView.setText(summary);
+    }
+
     /**
      * Handle "Clear Log" button click
      */
     private void onClearLogClicked() {
-        Log.d(TAG, "Clear Log button clicked");
+        jankMonitor.beginAction("clear log");
+        AppLog.d("Clear Log button clicked");
         
-        logBuffer = new StringBuilder();
-        logTextView.setText("Log cleared.\n");
-        ecidTextView.setText("ECID: (not retrieved yet)");
+        logStore.clear();
+        appendLog("Log cleared.");
+        ecidResults.clear();
+        refreshEcidView();
         checkAepStatus(); // Reset to initial status
     }
 
+    /**
+     * Redraw the SDK startup timing breakdown. Main thread only.
+     */
+    private void refreshStartupView() {
+        startupTextView.setText(MainApplication.getStartupTimeline().format());
+    }
+
+    /**
+     * Redraw the lifecycle call timing and session metrics. Main thread only.
+     */
+    private void refreshLifecycleView() {
+        lifecycleTextView.setText(lifecycleTracker.format());
+    }
+
     /**
      * Update the status TextView
      */
@@ -369,43 +920,67 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * Append a message to the log TextView
+     * Append a message to the on-screen log and the session log file
+     * Safe to call from any thread; the list is refreshed on the next frame
      */
     private void appendLog(String message) {
-        String timestamp = new SimpleDateFormat("HH:mm:ss", Locale.US).format(new Date());
-        String logEntry = "[" + timestamp + "] " + message + "\n";
-        
-        logBuffer.append(logEntry);
-        
-        runOnUiThread(() -> {
-            logTextView.setText(logBuffer.toString());
-        });
+        String entry = LogLines.stamp(message);
+        logStore.append(entry);
+        sessionLog.append(entry);
     }
 
     /**
      * Get current timestamp in ISO 8601 format for XDM
      */
     private String getCurrentTimestamp() {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
-        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
-        return sdf.format(new Date());
+        return EdgePayloads.currentTimestamp();
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        Log.d(TAG, "MainActivity onResume");
-        
-        // You could trigger Lifecycle start here if needed
-        // MobileCore.lifecycleStart(null);
+        AppLog.d("MainActivity onResume");
+
+        // Frames are only tracked while visible; the callback runs every vsync
+        jankMonitor.setListener(() -> jankTextView.setText(jankMonitor.summary()));
+        jankMonitor.start(getWindowManager().getDefaultDisplay().getRefreshRate());
+        jankTextView.setText(jankMonitor.summary());
+        backgroundStatsPoller.run();
+
+        // lifecycleStart/lifecyclePause are called for every activity by
+        // LifecycleTracker when lifecycle_tracking_enabled is set
+        if (lifecycleTracker != null) {
+            lifecycleTextView.setVisibility(View.VISIBLE);
+            lifecycleTracker.setListener(() -> runOnUiThread(this::refreshLifecycleView));
+            refreshLifecycleView();
+        }
     }
 
     @Override
     protected void onPause() {
         super.onPause();
-        Log.d(TAG, "MainActivity onPause");
-        
-        // You could trigger Lifecycle pause here if needed
-        // MobileCore.lifecyclePause();
+        AppLog.d("MainActivity onPause");
+        jankMonitor.stop();
+        jankMonitor.setListener(null);
+        uiHandler.removeCallbacks(backgroundStatsPoller);
+        if (lifecycleTracker != null) {
+            lifecycleTracker.setListener(null);
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        MainApplication.getStartupTimeline().setListener(null);
+        if (loadGenerator != null) {
+            loadGenerator.stop();
+        }
+        uiHandler.removeCallbacks(loadStatsPoller);
+        if (traceReplayer != null) {
+            traceReplayer.stop();
+        }
+        uiHandler.removeCallbacks(replayStatsPoller);
+        responseProcessor.setListener(null);
+        ioExecutor.shutdown();
     }
 }
@@ -1,9 +1,16 @@
 package com.example.aepvalidation;
 
+import android.app.Activity;
 import android.app.Application;
-import android.util.Log;
+import android.content.pm.ApplicationInfo;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
+import android.view.Choreographer;
 
 import com.adobe.marketing.mobile.Edge;
+import com.adobe.marketing.mobile.Extension;
 import com.adobe.marketing.mobile.Identity;
 import com.adobe.marketing.mobile.Lifecycle;
 import com.adobe.marketing.mobile.LoggingMode;
@@ -11,7 +18,19 @@ import com.adobe.marketing.mobile.MobileCore;
 import com.adobe.marketing.mobile.Signal;
 import com.adobe.marketing.mobile.UserProfile;
 
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
 import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * MainApplication - Custom Application class for AEP SDK initialization
@@ -21,83 +40,382 @@ import java.util.Arrays;
  */
 public class MainApplication extends Application {
 
-    private static final String TAG = "AEPValidationApp";
-
     // =========================================================
     // YOUR AEP ENVIRONMENT ID (from Adobe Data Collection)
     // =========================================================
     private static final String ENVIRONMENT_ID = "YOUR_ENV_ID_HERE";
 
-    // Flag to track initialization status
-    private static boolean isAepInitialized = false;
-    private static String initializationError = null;
+    // =========================================================
+    // STARTUP MODE
+    // true:  only Edge + Edge Identity are registered on the critical path,
+    //        off the main thread. Identity, Lifecycle, Signal and UserProfile
+    //        are registered after the first frame is drawn.
+    // false: all extensions are registered inline on the main thread.
+    // =========================================================
+    private static final boolean STAGED_STARTUP = true;
+
+    // Register deferred extensions anyway if no activity draws a frame in time
+    // (e.g. the process was started in the background)
+    private static final long DEFERRED_REGISTRATION_TIMEOUT_MS = 5000;
+
+    // How long a looked-up ECID is served from cache
+    private static final long ECID_CACHE_TTL_MS = 5 * 60 * 1000;
+    private static final EcidService ecidService = new EcidService(new SdkIdentityClient(), ECID_CACHE_TTL_MS);
+
+    // Durable record of sent events, replayed on the next start if unacknowledged
+    private static final String EVENT_JOURNAL_FILE = "journal/events.journal";
+    private static final int EVENT_JOURNAL_CAPACITY_BYTES = 16 * 1024 * 1024;
+    private static volatile EventJournal eventJournal;
+
+    // Completes once configureWithAppID has run, or exceptionally if init failed
+    private static final CompletableFuture<Void> sdkReady = new CompletableFuture<>();
+    private static volatile String initializationError = null;
+    // A failed non-critical stage: Edge still works, so this is only a warning
+    private static volatile String deferredStageError = null;
+
+    // All Edge sends go through here so events submitted before sdkReady are buffered
+    private static final EdgeEventSender eventSender =
+        new EdgeEventSender(new SdkEdgeClient(), sdkReady, EdgeEventSender.DEFAULT_BUFFER_CAPACITY);
+
+    // Edge response handles: summarized in the background and saved to SQLite,
+    // tagged with this run's id so runs can be compared on the query screen
+    private static volatile ResponseStore responseStore;
+    private static volatile EdgeResponseProcessor responseProcessor;
+
+    // Client-side protection against floods and double taps on the send path
+    private static final long EVENT_DEDUP_WINDOW_MS = 2000;
+    private static final EventGate.Limit DEFAULT_EVENT_LIMIT = new EventGate.Limit(20, 10);
+
+    // Slow frames, long main-thread messages and StrictMode hits, by user action
+    private static volatile JankMonitor jankMonitor;
+
+    // Rotating on-disk copy of the on-screen log, written on its own thread
+    private static final String SESSION_LOG_DIR = "session-log";
+    private static final int SESSION_LOG_QUEUE_CAPACITY = 8192;
+    private static volatile SessionLog sessionLog;
+
+    // Opt-in: lifecycleStart/lifecyclePause from activity callbacks, timed
+    private static volatile LifecycleTracker lifecycleTracker;
+
+    // Timing for each startup phase, shown in the status panel
+    static final String TRACE_ON_CREATE = "AEP.Application.onCreate";
+    private static final StartupTimeline startupTimeline = new StartupTimeline();
+
+    private final ExecutorService startupExecutor =
+        Executors.newSingleThreadExecutor(r -> new Thread(r, "aep-startup"));
+    private final AtomicBoolean deferredRegistered = new AtomicBoolean(false);
 
     @Override
     public void onCreate() {
+        long onCreateStart = System.nanoTime();
+        // Named section for the :macrobenchmark startup runs (TraceSectionMetric)
+        Trace.beginSection(TRACE_ON_CREATE);
         super.onCreate();
 
-        Log.d(TAG, "========================================");
-        Log.d(TAG, "AEP init started");
-        Log.d(TAG, "Environment ID: " + ENVIRONMENT_ID);
-        Log.d(TAG, "========================================");
+        // App log level and trace ring are configured from resources so a
+        // build variant can quiet Logcat without touching code
+        AppLog.setLevel(AppLog.parseLevel(getString(R.string.app_log_level)));
+        int traceCapacity = getResources().getInteger(R.integer.trace_ring_capacity);
+        AppLog.setTrace(traceCapacity > 0 ? new TraceRing(traceCapacity) : null);
+
+        // Frames and Looper messages are only tracked while MainActivity is
+        // resumed; StrictMode covers startup in debuggable builds
+        jankMonitor = new JankMonitor();
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            jankMonitor.enableStrictMode();
+        }
+
+        // Resolved from dataDir rather than getFilesDir(), which may create the
+        // directory; the writer thread does all file I/O
+        sessionLog = new SessionLog(new File(getApplicationInfo().dataDir, SESSION_LOG_DIR),
+            new SessionLog.Config(getResources().getInteger(R.integer.session_log_segment_kb) * 1024L,
+                getResources().getInteger(R.integer.session_log_max_segments), SESSION_LOG_QUEUE_CAPACITY));
+
+        if (getResources().getBoolean(R.bool.lifecycle_tracking_enabled)) {
+            installLifecycleTracker();
+        }
+
+        AppLog.banner("AEP init started (" + (STAGED_STARTUP ? "staged" : "inline") + ")",
+            "Environment ID: " + ENVIRONMENT_ID);
 
         // CRITICAL: Set the application context FIRST before any other MobileCore calls
+        long phaseStart = System.nanoTime();
         MobileCore.setApplication(this);
-        Log.d(TAG, "MobileCore.setApplication() called");
+        startupTimeline.record("setApplication", phaseStart);
+        AppLog.d("MobileCore.setApplication() called");
+
+        if (STAGED_STARTUP) {
+            startupExecutor.execute(this::startCriticalExtensions);
+            scheduleDeferredExtensions();
+        } else {
+            startAllExtensionsInline();
+        }
+        startupExecutor.execute(this::openEventJournal);
+        if (getResources().getBoolean(R.bool.xdm_validation_enabled)) {
+            startupExecutor.execute(this::loadXdmValidator);
+        }
+        eventSender.setGate(createEventGate());
+        if (getResources().getBoolean(R.bool.payload_analysis_enabled)) {
+            eventSender.setAnalyzer(new PayloadAnalyzer());
+        }
 
-        // Set the log level to DEBUG as specified in your Adobe code
-        MobileCore.setLogLevel(LoggingMode.DEBUG);
-        Log.d(TAG, "MobileCore log level set to DEBUG");
+        // Opening the helper does no I/O; the database is created on first write
+        String runId = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date());
+        responseStore = new ResponseStore(this);
+        responseProcessor = new EdgeResponseProcessor(responseStore, runId);
+        sdkReady.thenRun(ecidService::watchForResets);
 
-        // =========================================================
-        // REGISTER EXTENSIONS AND INITIALIZE
-        // =========================================================
+        Trace.endSection();
+        startupTimeline.record("Application.onCreate (main thread)", onCreateStart);
+    }
+
+    /**
+     * Staged mode, critical path: everything Edge needs to send events
+     * Runs on the startup thread
+     */
+    private void startCriticalExtensions() {
+        setLogLevel();
+
+        AppLog.d("Registering critical extensions: Edge, EdgeIdentity");
+        registerExtensions("critical",
+            Arrays.asList(
+                Edge.EXTENSION,
+                com.adobe.marketing.mobile.edge.identity.Identity.EXTENSION  // Edge Identity
+            ),
+            true);
+    }
+
+    /**
+     * Staged mode, deferred: extensions not needed to send Edge events
+     * Runs on the startup thread once the first frame is drawn
+     */
+    private void startDeferredExtensions() {
+        if (!deferredRegistered.compareAndSet(false, true)) {
+            return;
+        }
+        AppLog.d("Registering deferred extensions: Identity, Lifecycle, Signal, UserProfile");
+        registerExtensions("deferred",
+            Arrays.asList(
+                Identity.EXTENSION,  // Legacy Identity
+                Lifecycle.EXTENSION,
+                Signal.EXTENSION,
+                UserProfile.EXTENSION
+            ),
+            false);
+    }
+
+    /**
+     * Inline mode: all extensions registered on the main thread, as before
+     */
+    private void startAllExtensionsInline() {
+        setLogLevel();
+
+        AppLog.d("Registering Adobe extensions...");
+        AppLog.d("Extensions: Edge, EdgeIdentity, Identity, Lifecycle, Signal, UserProfile");
+        registerExtensions("all",
+            Arrays.asList(
+                Edge.EXTENSION,
+                com.adobe.marketing.mobile.edge.identity.Identity.EXTENSION,  // Edge Identity
+                Identity.EXTENSION,  // Legacy Identity
+                Lifecycle.EXTENSION,
+                Signal.EXTENSION,
+                UserProfile.EXTENSION
+            ),
+            true);
+    }
+
+    /**
+     * Per-event-type rate limits for the buttons' event types; everything
+     * else gets DEFAULT_EVENT_LIMIT
+     */
+    private static EventGate createEventGate() {
+        Map<String, EventGate.Limit> limits = new HashMap<>();
+        limits.put(EdgePayloads.EVENT_TYPE_VALIDATION, new EventGate.Limit(5, 1));
+        limits.put(EdgePayloads.EVENT_TYPE_PRODUCT_VIEWS, new EventGate.Limit(5, 2));
+        return new EventGate(limits, DEFAULT_EVENT_LIMIT, EVENT_DEDUP_WINDOW_MS);
+    }
+
+    private void setLogLevel() {
+        // SDK log level comes from R.string.sdk_log_level (DEBUG unless overridden)
+        long phaseStart = System.nanoTime();
+        LoggingMode mode = parseSdkLogLevel(getString(R.string.sdk_log_level));
+        MobileCore.setLogLevel(mode);
+        startupTimeline.record("setLogLevel", phaseStart);
+        AppLog.d("MobileCore log level set to ", mode);
+    }
+
+    private static LoggingMode parseSdkLogLevel(String name) {
+        try {
+            return LoggingMode.valueOf(name.trim().toUpperCase(Locale.US));
+        } catch (RuntimeException e) {
+            AppLog.w("Unknown sdk_log_level '" + name + "', using DEBUG");
+            return LoggingMode.DEBUG;
+        }
+    }
+
+    /**
+     * Register a group of extensions and time the call and its callback
+     *
+     * @param configure whether to call configureWithAppID once registered
+     */
+    private void registerExtensions(String stage, List<Class<? extends Extension>> extensions,
+                                    boolean configure) {
+        long registerStart = System.nanoTime();
         try {
-            Log.d(TAG, "Registering Adobe extensions...");
-            Log.d(TAG, "Extensions: Edge, EdgeIdentity, Identity, Lifecycle, Signal, UserProfile");
-
-            // Register all required extensions
-            MobileCore.registerExtensions(
-                Arrays.asList(
-                    Edge.EXTENSION,
-                    com.adobe.marketing.mobile.edge.identity.Identity.EXTENSION,  // Edge Identity
-                    Identity.EXTENSION,  // Legacy Identity
-                    Lifecycle.EXTENSION,
-                    Signal.EXTENSION,
-                    UserProfile.EXTENSION
-                ),
-                o -> {
-                    // This callback is called when all extensions are registered
-                    Log.d(TAG, "========================================");
-                    Log.d(TAG, "AEP Extensions registered successfully");
-                    Log.d(TAG, "Configuring with Environment ID...");
-                    Log.d(TAG, "========================================");
+            MobileCore.registerExtensions(extensions, o -> {
+                // This callback is called when all extensions in this group are registered
+                startupTimeline.record("registerExtensions " + stage + " -> callback", registerStart);
+                AppLog.banner("AEP Extensions registered successfully (" + stage + ")");
+
+                LifecycleTracker tracker = lifecycleTracker;
+                if (tracker != null && extensions.contains(Lifecycle.EXTENSION)) {
+                    tracker.onExtensionRegistered();
+                }
+
+                if (configure) {
+                    AppLog.d("Configuring with Environment ID...");
 
                     // Configure with your Environment ID
+                    long configureStart = System.nanoTime();
                     MobileCore.configureWithAppID(ENVIRONMENT_ID);
+                    startupTimeline.record("configureWithAppID", configureStart);
 
-                    isAepInitialized = true;
-                    Log.d(TAG, "========================================");
-                    Log.d(TAG, "AEP init completed successfully!");
-                    Log.d(TAG, "SDK is ready to send events");
-                    Log.d(TAG, "========================================");
+                    sdkReady.complete(null);
+                    AppLog.trace(TraceRing.SDK_READY,
+                        (System.nanoTime() - startupTimeline.processStartNanos()) / 1_000_000);
+                    AppLog.banner("AEP init completed successfully!", "SDK is ready to send events");
                 }
-            );
+            });
+            startupTimeline.record("registerExtensions " + stage + " (call)", registerStart);
 
         } catch (Exception e) {
+            startupTimeline.record("registerExtensions " + stage + " FAILED", registerStart);
+            if (!configure) {
+                // sdkReady belongs to the stage that configures; this one only adds extensions
+                deferredStageError = stage + ": " + e.getMessage();
+                AppLog.errorBanner("AEP " + stage + " extensions FAILED: " + e.getMessage());
+                AppLog.e("AEP " + stage + " registration failure", e);
+                return;
+            }
             initializationError = e.getMessage();
-            Log.e(TAG, "========================================");
-            Log.e(TAG, "AEP init FAILED with error: " + e.getMessage());
-            Log.e(TAG, "========================================");
-            e.printStackTrace();
+            sdkReady.completeExceptionally(e);
+            AppLog.errorBanner("AEP init FAILED with error: " + e.getMessage());
+            AppLog.e("AEP init failure", e);
+        }
+    }
+
+    /**
+     * Compile the XDM schema off the main thread; events sent before it is
+     * ready go out unvalidated
+     */
+    private void loadXdmValidator() {
+        long phaseStart = System.nanoTime();
+        String asset = getString(R.string.xdm_schema_asset);
+        try {
+            XdmValidator validator = XdmValidator.load(getAssets(), asset);
+            if (!validator.unsupportedKeywords().isEmpty()) {
+                AppLog.w("XDM schema keywords not checked: " + validator.unsupportedKeywords());
+            }
+            eventSender.setValidator(validator);
+            startupTimeline.record("compile XDM schema", phaseStart);
+        } catch (IOException | RuntimeException e) {
+            AppLog.e("XDM schema " + asset + " unavailable: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Open the event journal and, once the SDK is ready, replay anything a
+     * previous run sent without getting a callback. Runs on the startup thread.
+     */
+    private void openEventJournal() {
+        long phaseStart = System.nanoTime();
+        EventJournal journal;
+        try {
+            journal = EventJournal.open(new File(getFilesDir(), EVENT_JOURNAL_FILE),
+                EVENT_JOURNAL_CAPACITY_BYTES);
+        } catch (IOException e) {
+            AppLog.e("Event journal unavailable: " + e.getMessage());
+            return;
         }
+        startupTimeline.record("open event journal", phaseStart);
+        eventJournal = journal;
+        eventSender.attachJournal(journal);
+
+        int recovered = journal.recovered().size();
+        if (recovered > 0) {
+            sdkReady.thenRun(() -> new Thread(() -> {
+                long replayStart = System.nanoTime();
+                new JournalReplayer(journal, eventSender).replay();
+                startupTimeline.record("journal replay (" + recovered + " events)", replayStart);
+            }, "aep-journal-replay").start());
+        }
+    }
+
+    /**
+     * Drive lifecycleStart/lifecyclePause from every activity, not just MainActivity
+     */
+    private void installLifecycleTracker() {
+        LifecycleTracker tracker = new LifecycleTracker();
+        registerActivityLifecycleCallbacks(new ActivityCallbacksAdapter() {
+            @Override
+            public void onActivityResumed(Activity activity) {
+                tracker.onActivityResumed();
+            }
+
+            @Override
+            public void onActivityPaused(Activity activity) {
+                tracker.onActivityPaused();
+            }
+        });
+        lifecycleTracker = tracker;
+    }
+
+    /**
+     * Register the deferred extensions right after the first activity frame,
+     * or after a timeout if no activity is shown
+     */
+    private void scheduleDeferredExtensions() {
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        Runnable registerDeferred = () -> startupExecutor.execute(this::startDeferredExtensions);
+        mainHandler.postDelayed(registerDeferred, DEFERRED_REGISTRATION_TIMEOUT_MS);
+
+        registerActivityLifecycleCallbacks(new ActivityCallbacksAdapter() {
+            @Override
+            public void onActivityResumed(Activity activity) {
+                unregisterActivityLifecycleCallbacks(this);
+
+                // Frame callbacks run before the traversal of the same frame,
+                // so posting from here lands just after the first frame is drawn
+                Choreographer.getInstance().postFrameCallback(frameTimeNanos -> mainHandler.post(() -> {
+                    startupTimeline.record("process start -> first frame",
+                        startupTimeline.processStartNanos());
+                    mainHandler.removeCallbacks(registerDeferred);
+                    registerDeferred.run();
+                }));
+            }
+        });
     }
 
     /**
      * Check if AEP SDK is initialized successfully
      */
     public static boolean isAepInitialized() {
-        return isAepInitialized;
+        return sdkReady.isDone() && !sdkReady.isCompletedExceptionally();
+    }
+
+    /**
+     * Future that completes when configureWithAppID has run
+     * Completes exceptionally if extension registration failed
+     */
+    public static CompletableFuture<Void> getSdkReadiness() {
+        return sdkReady;
+    }
+
+    /**
+     * Get the sender that all Edge events should go through
+     */
+    public static EdgeEventSender getEventSender() {
+        return eventSender;
     }
 
     /**
@@ -107,10 +425,88 @@ public class MainApplication extends Application {
         return initializationError;
     }
 
+    /**
+     * Get the error of a non-critical extension stage that failed, if any,
+     * as "stage: message"; the SDK can still be ready
+     */
+    public static String getDeferredStageError() {
+        return deferredStageError;
+    }
+
     /**
      * Get the configured Environment ID
      */
     public static String getEnvironmentId() {
         return ENVIRONMENT_ID;
     }
+
+    /**
+     * Get the shared ECID lookup service
+     */
+    public static EcidService getEcidService() {
+        return ecidService;
+    }
+
+    /**
+     * Get the event journal, or null if it is not open (yet)
+     */
+    public static EventJournal getEventJournal() {
+        return eventJournal;
+    }
+
+    /**
+     * Get the SQLite store of Edge response handles
+     */
+    public static ResponseStore getResponseStore() {
+        return responseStore;
+    }
+
+    /**
+     * Get the shared processor that summarizes and stores Edge response handles
+     */
+    public static EdgeResponseProcessor getResponseProcessor() {
+        return responseProcessor;
+    }
+
+    /**
+     * Get the timing breakdown of SDK startup
+     */
+    public static StartupTimeline getStartupTimeline() {
+        return startupTimeline;
+    }
+
+    /**
+     * Get the main-thread jank monitor
+     */
+    public static JankMonitor getJankMonitor() {
+        return jankMonitor;
+    }
+
+    /**
+     * Get the on-disk session log
+     */
+    public static SessionLog getSessionLog() {
+        return sessionLog;
+    }
+
+    /**
+     * Get the lifecycle tracker, or null unless lifecycle_tracking_enabled is set
+     */
+    public static LifecycleTracker getLifecycleTracker() {
+        return lifecycleTracker;
+    }
+
+    /**
+     * ActivityLifecycleCallbacks with empty defaults, so listeners only
+     * override what they need
+     */
+    private abstract static class ActivityCallbacksAdapter implements ActivityLifecycleCallbacks {
+        @Override public void onActivityCreated(Activity activity, Bundle savedInstanceState) { }
+        @Override public void onActivityStarted(Activity activity) { }
+        @Override public void onActivityResumed(Activity activity) { }
+        @Override public void onActivityPaused(Activity activity) { }
+        @Override public void onActivityStopped(Activity activity) { }
+        @Override public void onActivitySaveInstanceState(Activity activity, Bundle outState) { }
+        @Override public void onActivityDestroyed(Activity activity) { }
+    }
 }
@@ -0,0 +1,459 @@
+package com.example.aepvalidation;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+/**
+ * PayloadAnalyzer - Raw and gzip size of every outgoing event, and fields that waste bytes
+ *
+ * {@link #submit} hands an event's XDM and custom data maps to one background
+ * thread and returns. There each event is serialized once, as the
+ * {"xdm":...,"data":...} part of the Edge request, into a reused buffer:
+ * maps and lists are walked here so every leaf's "key":value byte count is
+ * known, and leaves are written with {@link JsonByteWriter}. The bytes are
+ * then run through a reused Deflater for the gzip size.
+ *
+ * Per event type, the last {@link #WINDOW} events are kept for rolling
+ * raw/gzip/XDM/data sizes. Fields are flagged when they
+ *   - carry the same value in at least 95% of events of their type
+ *     (candidates for datastream mapping or once-per-session data)
+ *   - repeat, within one event, a value already sent at another path
+ *   - are empty: null, "", {} or []
+ * List elements share one path, e.g. xdm.productListItems[].SKU.
+ *
+ * Submitted maps must not be changed afterwards, as for any sent event.
+ */
+public final class PayloadAnalyzer {
+
+    private static final int WINDOW = 128;
+    private static final int MIN_EVENTS_FOR_REPEATS = 20;
+    private static final double REPEAT_RATIO = 0.95;
+    private static final int MIN_DUPLICATE_CHARS = 8;
+    private static final int MAX_PENDING = 1024;
+    private static final int MAX_FINDINGS = 6;
+    private static final long PUBLISH_INTERVAL_NANOS = 250_000_000L;
+
+    // 10-byte gzip header and 8-byte trailer around the deflate stream
+    private static final int GZIP_OVERHEAD = 18;
+
+    private static final int INITIAL_BUFFER_BYTES = 16 * 1024;
+    private static final int MAX_BUFFER_BYTES = 1024 * 1024;
+
+    // Constant per event type by definition
+    private static final String EVENT_TYPE_PATH = "xdm.eventType";
+
+    private static final byte[] XDM_PREFIX = {'{', '"', 'x', 'd', 'm', '"', ':'};
+    private static final byte[] DATA_PREFIX = {',', '"', 'd', 'a', 't', 'a', '"', ':'};
+
+    /**
+     * One leaf path within an event type
+     */
+    private static final class FieldStats {
+        long seen;
+        long sameAsPrevious;
+        long empty;
+        int lastHash;
+        int lastBytes;
+        String duplicateOf;
+        long duplicates;
+        boolean reported;
+    }
+
+    /**
+     * One leaf of the event being analyzed, applied to its FieldStats once
+     * the whole event has been serialized
+     */
+    private static final class Leaf {
+        String path;
+        Object value;
+        int bytes;
+    }
+
+    /**
+     * A flagged field and the bytes it cost over the events seen; duplicated
+     * and empty fields are plain waste, repeated values only candidates
+     */
+    private static final class Finding {
+        final String text;
+        final boolean definite;
+        final long wastedBytes;
+
+        Finding(String text, boolean definite, long wastedBytes) {
+            this.text = text;
+            this.definite = definite;
+            this.wastedBytes = wastedBytes;
+        }
+    }
+
+    /**
+     * Rolling sizes and field stats for one event type
+     */
+    private static final class TypeStats {
+        final String eventType;
+        final int[] raw = new int[WINDOW];
+        final int[] gzip = new int[WINDOW];
+        final int[] xdm = new int[WINDOW];
+        final int[] data = new int[WINDOW];
+        final Map<String, FieldStats> fields = new HashMap<>();
+        int next;
+        int size;
+        long events;
+        long totalRaw;
+        long totalGzip;
+
+        TypeStats(String eventType) {
+            this.eventType = eventType;
+        }
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "aep-payload-analyzer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong analyzed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final LatencyHistogram cost = new LatencyHistogram();
+    private volatile String summary = "Payloads: none sent yet";
+
+    // Analyzer thread only
+    private final JsonByteWriter jsonWriter = new JsonByteWriter();
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final byte[] deflateOut = new byte[8 * 1024];
+    private final Map<String, TypeStats> types = new LinkedHashMap<>();
+    private final Map<String, String> valuePaths = new HashMap<>();
+    private final StringBuilder path = new StringBuilder(128);
+    private final List<Leaf> leaves = new ArrayList<>();
+    private int leafCount;
+    private TypeStats current;
+    private long lastPublishNanos;
+
+    /**
+     * Queue an outgoing event for analysis; safe to call from any thread.
+     * Events arriving while 1024 are already queued are skipped and counted.
+     */
+    public void submit(Map<String, Object> xdm, Map<String, Object> data) {
+        if (pending.incrementAndGet() > MAX_PENDING) {
+            pending.decrementAndGet();
+            skipped.incrementAndGet();
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                analyze(xdm, data);
+            } catch (RuntimeException e) {
+                AppLog.e("Payload analysis failed: " + e.getMessage());
+            } finally {
+                pending.decrementAndGet();
+            }
+            long now = System.nanoTime();
+            if (pending.get() == 0 || now - lastPublishNanos >= PUBLISH_INTERVAL_NANOS) {
+                lastPublishNanos = now;
+                summary = buildSummary();
+            }
+        });
+    }
+
+    // =========================================================
+    // ANALYSIS (analyzer thread)
+    // =========================================================
+
+    private void analyze(Map<String, Object> xdm, Map<String, Object> data) {
+        long start = System.nanoTime();
+        Object type = xdm != null ? xdm.get("eventType") : null;
+        String eventType = type != null ? type.toString() : "(no eventType)";
+        current = types.get(eventType);
+        if (current == null) {
+            current = new TypeStats(eventType);
+            types.put(eventType, current);
+        }
+
+        int end;
+        int xdmBytes;
+        int dataBytes;
+        while (true) {
+            try {
+                leafCount = 0;
+                int pos = putBytes(0, XDM_PREFIX);
+                path.setLength(0);
+                path.append("xdm");
+                int xdmEnd = walk(pos, xdm);
+                xdmBytes = xdmEnd - pos;
+                pos = xdmEnd;
+                dataBytes = 0;
+                if (data != null) {
+                    pos = putBytes(pos, DATA_PREFIX);
+                    path.setLength(0);
+                    path.append("data");
+                    int dataEnd = walk(pos, data);
+                    dataBytes = dataEnd - pos;
+                    pos = dataEnd;
+                }
+                buffer.put(pos++, (byte) '}');
+                end = pos;
+                break;
+            } catch (IndexOutOfBoundsException e) {
+                if (buffer.capacity() >= MAX_BUFFER_BYTES) {
+                    skipped.incrementAndGet();
+                    return;
+                }
+                // Leaves from the partial pass are discarded; the retry walks the event again
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+
+        valuePaths.clear();
+        for (int i = 0; i < leafCount; i++) {
+            Leaf leaf = leaves.get(i);
+            recordLeaf(leaf.path, leaf.value, leaf.bytes);
+            leaf.value = null;
+        }
+
+        int gzipBytes = gzipSize(end);
+        TypeStats t = current;
+        t.raw[t.next] = end;
+        t.gzip[t.next] = gzipBytes;
+        t.xdm[t.next] = xdmBytes;
+        t.data[t.next] = dataBytes;
+        t.next = (t.next + 1) % WINDOW;
+        t.size = Math.min(t.size + 1, WINDOW);
+        t.events++;
+        t.totalRaw += end;
+        t.totalGzip += gzipBytes;
+        analyzed.incrementAndGet();
+        cost.recordNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * Write a value at {@code pos} and record stats for each leaf under {@link #path}
+     *
+     * @return the index just past the written bytes
+     */
+    private int walk(int pos, Object value) {
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            if (map.isEmpty()) {
+                return leaf(pos, value);
+            }
+            int pathLength = path.length();
+            buffer.put(pos++, (byte) '{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!first) {
+                    buffer.put(pos++, (byte) ',');
+                }
+                first = false;
+                int fieldStart = pos;
+                String key = String.valueOf(entry.getKey());
+                pos = jsonWriter.write(buffer, pos, key);
+                buffer.put(pos++, (byte) ':');
+                path.append('.').append(key);
+                pos = walkField(pos, fieldStart, entry.getValue());
+                path.setLength(pathLength);
+            }
+            buffer.put(pos++, (byte) '}');
+            return pos;
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            if (list.isEmpty()) {
+                return leaf(pos, value);
+            }
+            int pathLength = path.length();
+            path.append("[]");
+            buffer.put(pos++, (byte) '[');
+            for (int i = 0, n = list.size(); i < n; i++) {
+                if (i > 0) {
+                    buffer.put(pos++, (byte) ',');
+                }
+                pos = walkField(pos, pos, list.get(i));
+            }
+            buffer.put(pos++, (byte) ']');
+            path.setLength(pathLength);
+            return pos;
+        }
+        return leaf(pos, value);
+    }
+
+    private int walkField(int pos, int fieldStart, Object value) {
+        if ((value instanceof Map && !((Map<?, ?>) value).isEmpty())
+            || (value instanceof List && !((List<?>) value).isEmpty())) {
+            return walk(pos, value);
+        }
+        int end = leaf(pos, value);
+        if (leafCount == leaves.size()) {
+            leaves.add(new Leaf());
+        }
+        Leaf leaf = leaves.get(leafCount++);
+        leaf.path = path.toString();
+        leaf.value = value;
+        leaf.bytes = end - fieldStart;
+        return end;
+    }
+
+    private int leaf(int pos, Object value) {
+        return jsonWriter.write(buffer, pos, value);
+    }
+
+    private void recordLeaf(String fieldPath, Object value, int bytes) {
+        FieldStats field = current.fields.get(fieldPath);
+        if (field == null) {
+            field = new FieldStats();
+            current.fields.put(fieldPath, field);
+        }
+        int hash = value == null ? 0 : value.hashCode();
+        if (field.seen > 0 && hash == field.lastHash) {
+            field.sameAsPrevious++;
+        }
+        field.seen++;
+        field.lastHash = hash;
+        field.lastBytes = bytes;
+
+        if (value == null || "".equals(value)
+            || (value instanceof Map && ((Map<?, ?>) value).isEmpty())
+            || (value instanceof List && ((List<?>) value).isEmpty())) {
+            field.empty++;
+        } else if (value instanceof String && ((String) value).length() >= MIN_DUPLICATE_CHARS) {
+            String firstPath = valuePaths.putIfAbsent((String) value, fieldPath);
+            if (firstPath != null && !firstPath.equals(fieldPath)) {
+                field.duplicateOf = firstPath;
+                field.duplicates++;
+            }
+        }
+
+        if (!field.reported && isRepeated(field) && !EVENT_TYPE_PATH.equals(fieldPath)) {
+            field.reported = true;
+            AppLog.d(() -> "Payload field " + fieldPath + " has the same value in almost every "
+                + current.eventType + " event");
+        }
+    }
+
+    private static boolean isRepeated(FieldStats field) {
+        return field.seen >= MIN_EVENTS_FOR_REPEATS
+            && field.sameAsPrevious >= REPEAT_RATIO * (field.seen - 1);
+    }
+
+    private int gzipSize(int length) {
+        deflater.reset();
+        deflater.setInput(buffer.array(), 0, length);
+        deflater.finish();
+        int total = 0;
+        while (!deflater.finished()) {
+            total += deflater.deflate(deflateOut);
+        }
+        return total + GZIP_OVERHEAD;
+    }
+
+    private int putBytes(int pos, byte[] bytes) {
+        for (byte b : bytes) {
+            buffer.put(pos++, b);
+        }
+        return pos;
+    }
+
+    // =========================================================
+    // OUTPUT
+    // =========================================================
+
+    /**
+     * Latest rolling summary; any thread
+     */
+    public String format() {
+        return summary;
+    }
+
+    public long analyzedCount() {
+        return analyzed.get();
+    }
+
+    public long skippedCount() {
+        return skipped.get();
+    }
+
+    /**
+     * Wait until every event submitted so far is analyzed and the summary
+     * reflects it; the single analyzer thread runs tasks in order
+     */
+    boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        CountDownLatch idle = new CountDownLatch(1);
+        executor.execute(idle::countDown);
+        return idle.await(timeout, unit);
+    }
+
+    // Analyzer thread
+    private String buildSummary() {
+        StringBuilder sb = new StringBuilder(String.format(Locale.US,
+            "Payloads: %d analyzed (%.0f µs p50 each, off the UI thread)",
+            analyzed.get(), cost.percentileNanos(50) / 1e3));
+        if (skipped.get() > 0) {
+            sb.append(", ").append(skipped.get()).append(" skipped");
+        }
+        List<Finding> findings = new ArrayList<>();
+        for (TypeStats t : types.values()) {
+            if (t.size == 0) {
+                continue;
+            }
+            int[] raw = Arrays.copyOf(t.raw, t.size);
+            Arrays.sort(raw);
+            sb.append(String.format(Locale.US,
+                "\n%s: %d sent, last %d raw avg %s / p95 %s (xdm %s, data %s), gzip avg %s (%.0f%%), total %s gzipped",
+                t.eventType, t.events, t.size, EdgeResponseProcessor.formatBytes(average(t.raw, t.size)),
+                EdgeResponseProcessor.formatBytes(raw[Math.min(t.size - 1, (int) Math.ceil(t.size * 0.95) - 1)]),
+                EdgeResponseProcessor.formatBytes(average(t.xdm, t.size)),
+                EdgeResponseProcessor.formatBytes(average(t.data, t.size)),
+                EdgeResponseProcessor.formatBytes(average(t.gzip, t.size)),
+                100.0 * average(t.gzip, t.size) / Math.max(1, average(t.raw, t.size)),
+                EdgeResponseProcessor.formatBytes(t.totalGzip)));
+            addFindings(t, findings);
+        }
+        // Plain waste first, then costliest first
+        findings.sort((a, b) -> a.definite != b.definite
+            ? (a.definite ? -1 : 1) : Long.compare(b.wastedBytes, a.wastedBytes));
+        for (int i = 0; i < Math.min(findings.size(), MAX_FINDINGS); i++) {
+            sb.append("\n  ⚠️ ").append(findings.get(i).text);
+        }
+        if (findings.size() > MAX_FINDINGS) {
+            sb.append("\n  … ").append(findings.size() - MAX_FINDINGS).append(" more field(s)");
+        }
+        return sb.toString();
+    }
+
+    private static void addFindings(TypeStats t, List<Finding> findings) {
+        for (Map.Entry<String, FieldStats> e : t.fields.entrySet()) {
+            FieldStats f = e.getValue();
+            String each = EdgeResponseProcessor.formatBytes(f.lastBytes);
+            if (f.empty > 0) {
+                findings.add(new Finding(String.format(Locale.US, "%s empty in %d of %d %s event(s)",
+                    e.getKey(), f.empty, f.seen, t.eventType), true, f.empty * f.lastBytes));
+            } else if (f.duplicates > 0) {
+                findings.add(new Finding(String.format(Locale.US, "%s repeats %s (%s each)",
+                    e.getKey(), f.duplicateOf, each), true, f.duplicates * f.lastBytes));
+            } else if (isRepeated(f) && !EVENT_TYPE_PATH.equals(e.getKey())) {
+                findings.add(new Finding(String.format(Locale.US, "%s same value in %d of %d %s events (%s each)",
+                    e.getKey(), f.sameAsPrevious + 1, f.seen, t.eventType, each), false, f.seen * f.lastBytes));
+            }
+        }
+    }
+
+    private static long average(int[] values, int count) {
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += values[i];
+        }
+        return count > 0 ? sum / count : 0;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.aepvalidation;
+
+import android.os.Bundle;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ResponseQueryActivity - Filter stored Edge responses across validation runs
+ *
+ * Queries the {@link ResponseStore} by handle type, event type and age on a
+ * background thread and shows the newest matches plus a count per handle
+ * type. Results are rendered through the same {@link LogStore} /
+ * {@link LogAdapter} pair as the main event log.
+ */
+public class ResponseQueryActivity extends AppCompatActivity {
+
+    private static final int MAX_RESULTS = 500;
+    private static final int PAYLOAD_PREVIEW_CHARS = 160;
+
+    // UI Elements
+    private EditText handleTypeFilterInput;
+    private EditText eventTypeFilterInput;
+    private EditText sinceMinutesFilterInput;
+    private Button runQueryButton;
+    private Button deleteResponsesButton;
+    private TextView queryStatsTextView;
+
+    private LogStore resultStore;
+    private final ResponseStore responseStore = MainApplication.getResponseStore();
+
+    // SQLite work never runs on the UI thread
+    private final ExecutorService queryExecutor = Executors.newSingleThreadExecutor();
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_response_query);
+
+        handleTypeFilterInput = findViewById(R.id.handleTypeFilterInput);
+        eventTypeFilterInput = findViewById(R.id.eventTypeFilterInput);
+        sinceMinutesFilterInput = findViewById(R.id.sinceMinutesFilterInput);
+        runQueryButton = findViewById(R.id.runQueryButton);
+        deleteResponsesButton = findViewById(R.id.deleteResponsesButton);
+        queryStatsTextView = findViewById(R.id.queryStatsTextView);
+
+        RecyclerView resultsRecyclerView = findViewById(R.id.queryResultsRecyclerView);
+        resultStore = new LogStore(MAX_RESULTS);
+        new LogAdapter(resultStore, resultsRecyclerView);
+
+        runQueryButton.setOnClickListener(v -> onRunQueryClicked());
+        deleteResponsesButton.setOnClickListener(v -> onDeleteResponsesClicked());
+
+        onRunQueryClicked();
+    }
+
+    /**
+     * Handle "Query" button click
+     */
+    private void onRunQueryClicked() {
+        ResponseStore.Filter filter;
+        try {
+            String since = sinceMinutesFilterInput.getText().toString().trim();
+            long sinceMillis = since.isEmpty()
+                ? 0 : System.currentTimeMillis() - Long.parseLong(since) * 60_000L;
+            filter = new ResponseStore.Filter(
+                handleTypeFilterInput.getText().toString(),
+                eventTypeFilterInput.getText().toString(),
+                sinceMillis,
+                MAX_RESULTS);
+        } catch (NumberFormatException e) {
+            queryStatsTextView.setText("❌ Minutes must be a whole number");
+            return;
+        }
+
+        queryStatsTextView.setText("⏳ Querying...");
+        queryExecutor.execute(() -> {
+            try {
+                long start = System.nanoTime();
+                List<ResponseStore.Row> rows = responseStore.query(filter);
+                Map<String, Long> counts = responseStore.countByHandleType(filter);
+                long elapsedNanos = System.nanoTime() - start;
+
+                String stats = formatStats(rows.size(), counts, elapsedNanos);
+                runOnUiThread(() -> {
+                    queryStatsTextView.setText(stats);
+                    resultStore.clear();
+                    SimpleDateFormat timeFormat = new SimpleDateFormat("MM-dd HH:mm:ss.SSS", Locale.US);
+                    // Rows arrive newest first; the log view reads oldest at the top
+                    for (int i = rows.size() - 1; i >= 0; i--) {
+                        resultStore.append(formatRow(rows.get(i), timeFormat));
+                    }
+                });
+            } catch (RuntimeException e) {
+                AppLog.e("Response query failed", e);
+                runOnUiThread(() -> queryStatsTextView.setText("❌ Query failed: " + e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Handle "Delete All" button click
+     */
+    private void onDeleteResponsesClicked() {
+        queryExecutor.execute(() -> {
+            try {
+                responseStore.deleteAll();
+                runOnUiThread(() -> {
+                    resultStore.clear();
+                    queryStatsTextView.setText("Stored responses deleted");
+                });
+            } catch (RuntimeException e) {
+                AppLog.e("Deleting stored responses failed", e);
+                runOnUiThread(() -> queryStatsTextView.setText("❌ Delete failed: " + e.getMessage()));
+            }
+        });
+    }
+
+    private static String formatStats(int shown, Map<String, Long> counts, long elapsedNanos) {
+        long total = 0;
+        StringBuilder byType = new StringBuilder();
+        for (Map.Entry<String, Long> e : counts.entrySet()) {
+            total += e.getValue();
+            byType.append("\n  ").append(e.getKey()).append(": ").append(e.getValue());
+        }
+        return String.format(Locale.US, "%d match(es), showing newest %d (%.1f ms)",
+            total, shown, elapsedNanos / 1e6) + byType;
+    }
+
+    private static String formatRow(ResponseStore.Row row, SimpleDateFormat timeFormat) {
+        String time = timeFormat.format(new Date(row.receivedAtMillis));
+        StringBuilder sb = new StringBuilder()
+            .append('[').append(time).append("] ")
+            .append(row.eventType).append(" → ").append(row.handleType)
+            .append(" (").append(row.payloadItems).append(" item(s), ")
+            .append(row.payloadBytes < 0 ? ">1 MB" : EdgeResponseProcessor.formatBytes(row.payloadBytes))
+            .append(')');
+        if (row.keyFields != null && !row.keyFields.isEmpty()) {
+            sb.append(' ').append(row.keyFields);
+        }
+        sb.append("\n  run ").append(row.runId);
+        if (row.payload != null) {
+            sb.append(": ").append(row.payload.length() > PAYLOAD_PREVIEW_CHARS
+                ? row.payload.substring(0, PAYLOAD_PREVIEW_CHARS) + "…" : row.payload);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        queryExecutor.shutdown();
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.aepvalidation;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ResponseStore - SQLite store of Edge response handles, kept across runs
+ *
+ * Each EdgeEventHandle becomes one row tagged with the app run it came from,
+ * the event type that was sent, the handle type and the time it arrived.
+ * The database runs in WAL mode so the query screen can read while responses
+ * are written, and writes arrive as batches inserted in one transaction with
+ * a single compiled statement, which keeps the cost per row low during load
+ * runs. Handle type, event type and timestamp are indexed (each paired with
+ * the timestamp) so filtered, newest-first queries don't scan the table.
+ *
+ * All methods do disk I/O; call them off the main thread.
+ */
+public final class ResponseStore extends SQLiteOpenHelper {
+
+    private static final String DB_NAME = "edge_responses.db";
+    private static final int DB_VERSION = 1;
+
+    private static final String TABLE = "responses";
+    private static final String INSERT_SQL = "INSERT INTO " + TABLE
+        + " (run_id, received_at, event_type, handle_type, payload_items, payload_bytes, key_fields, payload)"
+        + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String ROW_COLUMNS =
+        "run_id, received_at, event_type, handle_type, payload_items, payload_bytes, key_fields, payload";
+
+    /**
+     * One stored handle
+     */
+    public static final class Row {
+        public final String runId;
+        public final long receivedAtMillis;
+        public final String eventType;
+        public final String handleType;
+        public final int payloadItems;
+        public final int payloadBytes;
+        public final String keyFields;
+        public final String payload; // JSON, null if too large to keep
+
+        public Row(String runId, long receivedAtMillis, String eventType, String handleType,
+                   int payloadItems, int payloadBytes, String keyFields, String payload) {
+            this.runId = runId;
+            this.receivedAtMillis = receivedAtMillis;
+            this.eventType = eventType;
+            this.handleType = handleType;
+            this.payloadItems = payloadItems;
+            this.payloadBytes = payloadBytes;
+            this.keyFields = keyFields;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * Filter for {@link #query}; null fields match everything
+     */
+    public static final class Filter {
+        public final String handleType;
+        public final String eventType;
+        public final long sinceMillis; // 0 = no lower bound
+        public final int limit;
+
+        public Filter(String handleType, String eventType, long sinceMillis, int limit) {
+            this.handleType = emptyToNull(handleType);
+            this.eventType = emptyToNull(eventType);
+            this.sinceMillis = sinceMillis;
+            this.limit = limit;
+        }
+
+        private static String emptyToNull(String s) {
+            return s == null || s.trim().isEmpty() ? null : s.trim();
+        }
+    }
+
+    public ResponseStore(Context context) {
+        super(context.getApplicationContext(), DB_NAME, null, DB_VERSION);
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " ("
+            + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+            + "run_id TEXT NOT NULL, "
+            + "received_at INTEGER NOT NULL, "
+            + "event_type TEXT, "
+            + "handle_type TEXT NOT NULL, "
+            + "payload_items INTEGER NOT NULL, "
+            + "payload_bytes INTEGER NOT NULL, "
+            + "key_fields TEXT, "
+            + "payload TEXT)");
+        db.execSQL("CREATE INDEX idx_responses_handle_type ON " + TABLE + " (handle_type, received_at)");
+        db.execSQL("CREATE INDEX idx_responses_event_type ON " + TABLE + " (event_type, received_at)");
+        db.execSQL("CREATE INDEX idx_responses_received_at ON " + TABLE + " (received_at)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE);
+        onCreate(db);
+    }
+
+    /**
+     * Insert rows in one transaction
+     */
+    public void insertBatch(List<Row> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransactionNonExclusive();
+        try (SQLiteStatement insert = db.compileStatement(INSERT_SQL)) {
+            for (Row row : rows) {
+                insert.clearBindings();
+                insert.bindString(1, row.runId);
+                insert.bindLong(2, row.receivedAtMillis);
+                bindNullable(insert, 3, row.eventType);
+                insert.bindString(4, row.handleType);
+                insert.bindLong(5, row.payloadItems);
+                insert.bindLong(6, row.payloadBytes);
+                bindNullable(insert, 7, row.keyFields);
+                bindNullable(insert, 8, row.payload);
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Matching rows, newest first
+     */
+    public List<Row> query(Filter filter) {
+        List<String> args = new ArrayList<>();
+        String sql = "SELECT " + ROW_COLUMNS + " FROM " + TABLE + where(filter, args)
+            + " ORDER BY received_at DESC LIMIT " + filter.limit;
+
+        List<Row> rows = new ArrayList<>();
+        try (Cursor c = getReadableDatabase().rawQuery(sql, args.toArray(new String[0]))) {
+            while (c.moveToNext()) {
+                rows.add(new Row(c.getString(0), c.getLong(1), c.getString(2), c.getString(3),
+                    c.getInt(4), c.getInt(5), c.getString(6), c.getString(7)));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Row count per handle type for the same filter, ignoring its limit
+     */
+    public Map<String, Long> countByHandleType(Filter filter) {
+        List<String> args = new ArrayList<>();
+        String sql = "SELECT handle_type, COUNT(*) FROM " + TABLE + where(filter, args)
+            + " GROUP BY handle_type ORDER BY COUNT(*) DESC";
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        try (Cursor c = getReadableDatabase().rawQuery(sql, args.toArray(new String[0]))) {
+            while (c.moveToNext()) {
+                counts.put(c.getString(0), c.getLong(1));
+            }
+        }
+        return counts;
+    }
+
+    public void deleteAll() {
+        getWritableDatabase().execSQL("DELETE FROM " + TABLE);
+    }
+
+    private static String where(Filter filter, List<String> args) {
+        StringBuilder sb = new StringBuilder();
+        if (filter.handleType != null) {
+            sb.append(" AND handle_type = ?");
+            args.add(filter.handleType);
+        }
+        if (filter.eventType != null) {
+            sb.append(" AND event_type = ?");
+            args.add(filter.eventType);
+        }
+        if (filter.sinceMillis > 0) {
+            sb.append(" AND received_at >= ?");
+            args.add(Long.toString(filter.sinceMillis));
+        }
+        return sb.length() == 0 ? "" : " WHERE" + sb.substring(4);
+    }
+
+    private static void bindNullable(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.aepvalidation;
+
+import com.adobe.marketing.mobile.Edge;
+import com.adobe.marketing.mobile.EdgeCallback;
+import com.adobe.marketing.mobile.EdgeEventHandle;
+import com.adobe.marketing.mobile.ExperienceEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SdkEdgeClient - EdgeClient backed by Edge.sendEvent
+ *
+ * Handles are wrapped, not copied: each {@link EdgeClient.Handle} shares the
+ * SDK handle's payload list.
+ */
+public final class SdkEdgeClient implements EdgeClient {
+
+    @Override
+    public void sendEvent(ExperienceEvent event, Callback callback) {
+        Edge.sendEvent(event, new EdgeCallback() {
+            @Override
+            public void onComplete(List<EdgeEventHandle> handles) {
+                callback.onComplete(wrap(handles));
+            }
+        });
+    }
+
+    private static List<Handle> wrap(List<EdgeEventHandle> handles) {
+        if (handles == null || handles.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Handle> wrapped = new ArrayList<>(handles.size());
+        for (EdgeEventHandle handle : handles) {
+            wrapped.add(new Handle(handle.getType(), handle.getPayload()));
+        }
+        return wrapped;
+    }
+}
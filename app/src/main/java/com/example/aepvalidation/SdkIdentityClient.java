@@ -0,0 +1,50 @@
+package com.example.aepvalidation;
+
+import com.adobe.marketing.mobile.AdobeCallbackWithError;
+import com.adobe.marketing.mobile.AdobeError;
+import com.adobe.marketing.mobile.EventSource;
+import com.adobe.marketing.mobile.EventType;
+import com.adobe.marketing.mobile.Identity;
+import com.adobe.marketing.mobile.MobileCore;
+
+import java.util.function.Consumer;
+
+/**
+ * SdkIdentityClient - IdentityClient backed by the Identity and Edge Identity extensions
+ *
+ * Reset listeners are registered with the SDK event hub, so call
+ * {@link #addResetListener} only once the SDK is ready.
+ */
+public final class SdkIdentityClient implements IdentityClient {
+
+    @Override
+    public void getExperienceCloudId(EcidService.Source source, Callback callback) {
+        AdobeCallbackWithError<String> sdkCallback = new AdobeCallbackWithError<String>() {
+            @Override
+            public void call(String ecid) {
+                callback.onEcid(ecid);
+            }
+
+            @Override
+            public void fail(AdobeError adobeError) {
+                callback.onError(adobeError != null ? adobeError.getErrorName() : "Unknown error");
+            }
+        };
+        switch (source) {
+            case IDENTITY:
+                Identity.getExperienceCloudId(sdkCallback);
+                break;
+            case EDGE_IDENTITY:
+                com.adobe.marketing.mobile.edge.identity.Identity.getExperienceCloudId(sdkCallback);
+                break;
+        }
+    }
+
+    @Override
+    public void addResetListener(Consumer<String> listener) {
+        MobileCore.registerEventListener(EventType.GENERIC_IDENTITY, EventSource.REQUEST_RESET,
+            event -> listener.accept("identity reset"));
+        MobileCore.registerEventListener(EventType.EDGE_IDENTITY, EventSource.REQUEST_RESET,
+            event -> listener.accept("edge identity reset"));
+    }
+}
@@ -0,0 +1,529 @@
+package com.example.aepvalidation;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * SessionLog - Rotating on-disk copy of the event log, written by its own thread
+ *
+ * {@link #append(String)} only offers the line to a bounded queue, so any
+ * thread, the UI thread included, can log without touching disk; if the
+ * queue is full the line is counted as dropped rather than blocking. The
+ * writer thread drains whatever has queued up in one go, encodes it into a
+ * reusable direct buffer and writes it with a single FileChannel call, so a
+ * burst of sends costs a few large writes instead of one per line. Written
+ * lines are in the kernel once the call returns and survive the process
+ * being killed.
+ *
+ * Files, in the given directory:
+ *   - session.log: the active segment, plain UTF-8
+ *   - session-000001.log.gz, ...: closed segments, oldest first
+ * A segment is closed once it reaches the configured size and compressed on
+ * a second thread, so the writer never waits for gzip; only the newest
+ * closed segments are kept. An active segment left by a previous process is
+ * closed on start, so the last session before a crash is kept too.
+ *
+ * {@link #export} closes the active segment and joins every segment into one
+ * multi-member .gz file, readable with zcat or GZIPInputStream.
+ */
+public final class SessionLog implements Closeable {
+
+    public static final String ACTIVE_FILE = "session.log";
+    private static final String SEGMENT_PREFIX = "session-";
+    private static final String SEGMENT_SUFFIX = ".log.gz";
+    private static final String UNCOMPRESSED_SUFFIX = ".log";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_BATCH = 1024;
+    private static final long IDLE_POLL_MS = 1000;
+    private static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+    private static final byte NEWLINE = '\n';
+
+    /**
+     * Segment size, retention and queue bound
+     */
+    public static final class Config {
+        public final long segmentBytes;
+        public final int maxSegments;
+        public final int queueCapacity;
+
+        public Config(long segmentBytes, int maxSegments, int queueCapacity) {
+            if (segmentBytes <= 0 || maxSegments <= 0 || queueCapacity <= 0) {
+                throw new IllegalArgumentException("Segment size, segment count and queue capacity must be > 0");
+            }
+            this.segmentBytes = segmentBytes;
+            this.maxSegments = maxSegments;
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    /**
+     * Result of {@link #export}, called on the compression thread
+     */
+    public interface ExportCallback {
+        void onExported(File file, int segments, long bytes);
+
+        void onError(IOException error);
+    }
+
+    // Queued in line with log lines so an export sees everything appended before it
+    private static final class ExportRequest {
+        final File destination;
+        final ExportCallback callback;
+
+        ExportRequest(File destination, ExportCallback callback) {
+            this.destination = destination;
+            this.callback = callback;
+        }
+    }
+
+    private static final Object CLOSE = new Object();
+
+    private final File dir;
+    private final File activeFile;
+    private final Config config;
+    private final BlockingQueue<Object> queue;
+    private final Thread writer;
+    private final ExecutorService compressor;
+
+    // Writer thread only
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final List<Object> batch = new ArrayList<>(MAX_BATCH);
+    private FileChannel channel;
+    private long activeBytes;
+    private int nextSegment;
+    private long windowStartNanos;
+    private long windowLines;
+    private long windowBytes;
+
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong writtenBytes = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong rotations = new AtomicLong();
+    private final LatencyHistogram writeTime = new LatencyHistogram();
+    private volatile double linesPerSecond;
+    private volatile double bytesPerSecond;
+    private volatile String lastError;
+
+    public SessionLog(File dir, Config config) {
+        this.dir = dir;
+        this.activeFile = new File(dir, ACTIVE_FILE);
+        this.config = config;
+        this.queue = new ArrayBlockingQueue<>(config.queueCapacity);
+        this.compressor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "session-log-gzip");
+            t.setDaemon(true);
+            return t;
+        });
+        this.writer = new Thread(this::writeLoop, "session-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queue a line for the file. Never blocks; safe to call from any thread.
+     */
+    public void append(String line) {
+        // Counted before the offer so the writer never sees a negative depth
+        int d = depth.incrementAndGet();
+        if (!queue.offer(line)) {
+            depth.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        appended.incrementAndGet();
+        if (d > maxDepth.get()) {
+            maxDepth.accumulateAndGet(d, Math::max);
+        }
+    }
+
+    /**
+     * Write every closed segment plus everything appended so far to one .gz file.
+     * Waits for queue space, so call it off the UI thread.
+     */
+    public void export(File destination, ExportCallback callback) {
+        depth.incrementAndGet();
+        try {
+            queue.put(new ExportRequest(destination, callback));
+        } catch (InterruptedException e) {
+            depth.decrementAndGet();
+            Thread.currentThread().interrupt();
+            callback.onError(new IOException("Interrupted before export was queued"));
+        }
+    }
+
+    /**
+     * Write what is queued, wait for pending compression and stop both threads
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            depth.incrementAndGet();
+            queue.put(CLOSE);
+            writer.join();
+            compressor.shutdown();
+            compressor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing session log", e);
+        }
+    }
+
+    // =========================================================
+    // WRITER THREAD
+    // =========================================================
+
+    private void writeLoop() {
+        try {
+            openDirectory();
+        } catch (IOException e) {
+            fail("Session log unavailable", e);
+        }
+        windowStartNanos = System.nanoTime();
+        boolean closing = false;
+        while (!closing) {
+            Object first;
+            try {
+                first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (first != null) {
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                depth.addAndGet(-batch.size());
+                closing = writeBatch();
+                batch.clear();
+            }
+            updateRate();
+        }
+        closeActive();
+    }
+
+    /**
+     * @return true if the batch ended with {@link #close()}
+     */
+    private boolean writeBatch() {
+        long start = System.nanoTime();
+        int lines = 0;
+        boolean closing = false;
+        for (Object item : batch) {
+            if (item instanceof String) {
+                encode((String) item);
+                lines++;
+                if (activeBytes + buffer.position() >= config.segmentBytes) {
+                    flush();
+                    rotate();
+                }
+            } else {
+                flush();
+                if (item == CLOSE) {
+                    closing = true;
+                    break;
+                }
+                exportSegments((ExportRequest) item);
+            }
+        }
+        flush();
+        writeTime.recordNanos(System.nanoTime() - start);
+        written.addAndGet(lines);
+        windowLines += lines;
+        return closing;
+    }
+
+    private void encode(String line) {
+        CharBuffer chars = CharBuffer.wrap(line);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                flush();
+            } else {
+                break;
+            }
+        }
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put(NEWLINE);
+    }
+
+    private void flush() {
+        buffer.flip();
+        int bytes = buffer.remaining();
+        try {
+            if (channel == null) {
+                openActive();
+            }
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            activeBytes += bytes;
+            writtenBytes.addAndGet(bytes);
+            windowBytes += bytes;
+        } catch (IOException e) {
+            // The lines in the buffer are lost; the next flush reopens the file
+            fail("Session log write failed", e);
+            closeActive();
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    private void updateRate() {
+        long now = System.nanoTime();
+        long elapsed = now - windowStartNanos;
+        if (elapsed >= RATE_WINDOW_NANOS) {
+            linesPerSecond = windowLines / (elapsed / 1e9);
+            bytesPerSecond = windowBytes / (elapsed / 1e9);
+            windowStartNanos = now;
+            windowLines = 0;
+            windowBytes = 0;
+        }
+    }
+
+    // =========================================================
+    // SEGMENTS
+    // =========================================================
+
+    private void openDirectory() throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        for (File file : listFiles()) {
+            String name = file.getName();
+            if (name.endsWith(TEMP_SUFFIX)) {
+                // Compression or export interrupted by process death
+                file.delete();
+            } else if (name.startsWith(SEGMENT_PREFIX)) {
+                nextSegment = Math.max(nextSegment, segmentNumber(name) + 1);
+                if (name.endsWith(UNCOMPRESSED_SUFFIX)) {
+                    compressor.execute(() -> compress(file));
+                }
+            }
+        }
+        nextSegment = Math.max(nextSegment, 1);
+        // Keep the previous process's tail as its own segment
+        if (activeFile.length() > 0) {
+            rotate();
+        }
+        openActive();
+        encode("=== Session started " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss Z", Locale.US).format(new Date())
+            + " ===");
+        flush();
+    }
+
+    private void openActive() throws IOException {
+        channel = FileChannel.open(activeFile.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        activeBytes = channel.size();
+    }
+
+    private void closeActive() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Nothing left to write
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * Close the active segment and hand it to the compression thread
+     */
+    private void rotate() {
+        closeActive();
+        if (activeFile.length() == 0) {
+            return;
+        }
+        File closed = new File(dir, segmentName(nextSegment++, UNCOMPRESSED_SUFFIX));
+        if (!activeFile.renameTo(closed)) {
+            fail("Session log rotation failed", new IOException("Cannot rename to " + closed));
+            return;
+        }
+        activeBytes = 0;
+        rotations.incrementAndGet();
+        compressor.execute(() -> {
+            compress(closed);
+            prune();
+        });
+    }
+
+    private void exportSegments(ExportRequest request) {
+        rotate();
+        // Queued behind the compression of every segment closed so far
+        compressor.execute(() -> {
+            File temp = new File(request.destination.getPath() + TEMP_SUFFIX);
+            try {
+                File parent = request.destination.getParentFile();
+                if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                    throw new IOException("Cannot create " + parent);
+                }
+                int segments = 0;
+                try (FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    for (File segment : compressedSegments()) {
+                        try (FileChannel in = FileChannel.open(segment.toPath(), StandardOpenOption.READ)) {
+                            long size = in.size();
+                            long position = 0;
+                            while (position < size) {
+                                position += in.transferTo(position, size - position, out);
+                            }
+                        }
+                        segments++;
+                    }
+                }
+                if (!temp.renameTo(request.destination)) {
+                    throw new IOException("Cannot rename to " + request.destination);
+                }
+                request.callback.onExported(request.destination, segments, request.destination.length());
+            } catch (IOException e) {
+                temp.delete();
+                request.callback.onError(e);
+            }
+        });
+    }
+
+    // Compression thread
+    private void compress(File plain) {
+        String name = plain.getName();
+        File gz = new File(dir, name.substring(0, name.length() - UNCOMPRESSED_SUFFIX.length()) + SEGMENT_SUFFIX);
+        File temp = new File(gz.getPath() + TEMP_SUFFIX);
+        byte[] chunk = new byte[BUFFER_BYTES];
+        try (InputStream in = new FileInputStream(plain);
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(temp), BUFFER_BYTES)) {
+            int n;
+            while ((n = in.read(chunk)) > 0) {
+                out.write(chunk, 0, n);
+            }
+        } catch (IOException e) {
+            temp.delete();
+            fail("Session log compression failed", e);
+            return;
+        }
+        if (!temp.renameTo(gz) || !plain.delete()) {
+            fail("Session log compression failed", new IOException("Cannot replace " + plain));
+        }
+    }
+
+    // Compression thread
+    private void prune() {
+        List<File> segments = compressedSegments();
+        for (int i = 0; i < segments.size() - config.maxSegments; i++) {
+            segments.get(i).delete();
+        }
+    }
+
+    private List<File> compressedSegments() {
+        List<File> segments = new ArrayList<>();
+        for (File file : listFiles()) {
+            String name = file.getName();
+            if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                segments.add(file);
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Directory contents sorted by name, which is segment order
+     */
+    private File[] listFiles() {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return new File[0];
+        }
+        Arrays.sort(files);
+        return files;
+    }
+
+    private static String segmentName(int number, String suffix) {
+        return String.format(Locale.US, "%s%06d%s", SEGMENT_PREFIX, number, suffix);
+    }
+
+    private static int segmentNumber(String name) {
+        int start = SEGMENT_PREFIX.length();
+        int end = name.indexOf('.', start);
+        try {
+            return Integer.parseInt(name.substring(start, end < 0 ? name.length() : end));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void fail(String message, IOException e) {
+        lastError = message + ": " + e.getMessage();
+        AppLog.e(lastError);
+    }
+
+    // =========================================================
+    // STATS
+    // =========================================================
+
+    public int queueDepth() {
+        return depth.get();
+    }
+
+    public long writtenCount() {
+        return written.get();
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    public long rotationCount() {
+        return rotations.get();
+    }
+
+    /**
+     * Most recent write, rotation or compression failure, or null
+     */
+    public String lastError() {
+        return lastError;
+    }
+
+    public String format() {
+        String text = String.format(Locale.US,
+            "Session log: %d/%d lines written (%.1f KB), queue %d (max %d), %.0f lines/s (%.1f KB/s), "
+                + "batch write p99 %.2f ms, %d rotation(s), %d dropped",
+            written.get(), appended.get(), writtenBytes.get() / 1024.0, depth.get(), maxDepth.get(),
+            linesPerSecond, bytesPerSecond / 1024, writeTime.percentileNanos(99) / 1e6,
+            rotations.get(), dropped.get());
+        String error = lastError;
+        return error != null ? text + "\n⚠️ " + error : text;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.aepvalidation;
+
+import android.os.Process;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * StartupTimeline - Records how long each AEP SDK startup phase takes
+ *
+ * Phases are timed with System.nanoTime and placed on a timeline that starts
+ * when the process was forked, so the breakdown covers time spent before
+ * Application.onCreate as well. Phases can be recorded from any thread.
+ */
+public final class StartupTimeline {
+
+    /**
+     * Notified on the recording thread whenever a phase is added
+     */
+    public interface Listener {
+        void onPhaseRecorded(Phase phase);
+    }
+
+    public static final class Phase {
+        public final String name;
+        public final String thread;
+        public final long startOffsetNanos; // since process start
+        public final long durationNanos;
+
+        Phase(String name, String thread, long startOffsetNanos, long durationNanos) {
+            this.name = name;
+            this.thread = thread;
+            this.startOffsetNanos = startOffsetNanos;
+            this.durationNanos = durationNanos;
+        }
+    }
+
+    private final long processStartNanos;
+    private final List<Phase> phases = new ArrayList<>();
+    private volatile Listener listener;
+
+    public StartupTimeline() {
+        long sinceProcessStartMillis = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+        this.processStartNanos = System.nanoTime() - sinceProcessStartMillis * 1_000_000L;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Record a phase that started at {@code startNanos} and ends now
+     */
+    public Phase record(String name, long startNanos) {
+        return record(name, startNanos, System.nanoTime());
+    }
+
+    /**
+     * Record a phase between two System.nanoTime stamps
+     */
+    public Phase record(String name, long startNanos, long endNanos) {
+        Phase phase = new Phase(name, Thread.currentThread().getName(),
+            startNanos - processStartNanos, endNanos - startNanos);
+        synchronized (phases) {
+            phases.add(phase);
+        }
+        Listener l = listener;
+        if (l != null) {
+            l.onPhaseRecorded(phase);
+        }
+        return phase;
+    }
+
+    /**
+     * Process start expressed on the System.nanoTime clock
+     */
+    public long processStartNanos() {
+        return processStartNanos;
+    }
+
+    public List<Phase> phases() {
+        synchronized (phases) {
+            return new ArrayList<>(phases);
+        }
+    }
+
+    /**
+     * Compact breakdown for the status panel, one phase per line:
+     * "+offset  duration  name"
+     */
+    public String format() {
+        List<Phase> snapshot = phases();
+        if (snapshot.isEmpty()) {
+            return "No startup phases recorded";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Phase phase : snapshot) {
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            sb.append(String.format(Locale.US, "+%6.1f %7.2f ms  %s",
+                phase.startOffsetNanos / 1e6, phase.durationNanos / 1e6, phase.name));
+        }
+        return sb.toString();
+    }
+}
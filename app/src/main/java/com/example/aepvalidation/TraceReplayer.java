@@ -0,0 +1,452 @@
+package com.example.aepvalidation;
+
+import android.util.JsonReader;
+
+import com.adobe.marketing.mobile.ExperienceEvent;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * TraceReplayer - Replays a recorded JSONL event trace through Edge.sendEvent
+ *
+ * Each non-blank line of the trace is one event:
+ * <pre>
+ * {"t": 1718000000123, "xdm": {"eventType": "commerce.productViews", ...}, "data": {...}}
+ * </pre>
+ * {@code t} is a time in milliseconds (any origin; only differences matter)
+ * and is optional, {@code data} is optional. The file is read line by line
+ * and each line parsed with a streaming {@link JsonReader}, so only the
+ * current event is ever in memory. Events are built with the same
+ * ExperienceEvent.Builder / {@link EdgeEventSender} path as the buttons,
+ * without the {@link EventGate} so recorded bursts are replayed as recorded.
+ *
+ * Pacing follows the recorded gaps divided by {@link Config#speed}; speed 0
+ * sends as fast as possible. In every mode at most {@link Config#maxInFlight}
+ * events are awaiting their callback, so a slow network pushes back on the
+ * reader instead of queueing the whole trace. How far sends and completions
+ * fall behind the recorded schedule is tracked as lag.
+ */
+public final class TraceReplayer {
+
+    /**
+     * Opens the trace; called on the replay thread
+     */
+    public interface TraceSource {
+        String name();
+
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Parameters for one replay
+     */
+    public static final class Config {
+        public final double speed; // 1 = original timing, N = N× faster, 0 = as fast as possible
+        public final int maxInFlight;
+        public final boolean restampEvents;
+
+        public Config(double speed, int maxInFlight, boolean restampEvents) {
+            if (speed < 0) {
+                throw new IllegalArgumentException("Speed must be >= 0");
+            }
+            if (maxInFlight <= 0) {
+                throw new IllegalArgumentException("Max in flight must be > 0");
+            }
+            this.speed = speed;
+            this.maxInFlight = maxInFlight;
+            this.restampEvents = restampEvents;
+        }
+    }
+
+    /**
+     * Point-in-time view of a replay's counters
+     */
+    public static final class Stats {
+        public final String traceName;
+        public final long linesRead;
+        public final long skipped;
+        public final long sent;
+        public final long completed;
+        public final long rejected;
+        public final long sendElapsedNanos;
+        public final long elapsedNanos;
+        public final long sendLagP99Nanos;
+        public final long sendLagMaxNanos;
+        public final long completionLagP50Nanos;
+        public final long completionLagP99Nanos;
+        public final boolean running;
+        public final String error;
+
+        Stats(String traceName, long linesRead, long skipped, long sent, long completed,
+              long rejected, long sendElapsedNanos, long elapsedNanos,
+              long sendLagP99Nanos, long sendLagMaxNanos,
+              long completionLagP50Nanos, long completionLagP99Nanos,
+              boolean running, String error) {
+            this.traceName = traceName;
+            this.linesRead = linesRead;
+            this.skipped = skipped;
+            this.sent = sent;
+            this.completed = completed;
+            this.rejected = rejected;
+            this.sendElapsedNanos = sendElapsedNanos;
+            this.elapsedNanos = elapsedNanos;
+            this.sendLagP99Nanos = sendLagP99Nanos;
+            this.sendLagMaxNanos = sendLagMaxNanos;
+            this.completionLagP50Nanos = completionLagP50Nanos;
+            this.completionLagP99Nanos = completionLagP99Nanos;
+            this.running = running;
+            this.error = error;
+        }
+
+        public long inFlight() {
+            return sent - completed - rejected;
+        }
+
+        /**
+         * Achieved send rate in events/sec
+         */
+        public double sendRate() {
+            return sendElapsedNanos > 0 ? sent * 1e9 / sendElapsedNanos : 0;
+        }
+
+        /**
+         * Achieved completion rate in events/sec
+         */
+        public double completionRate() {
+            return elapsedNanos > 0 ? completed * 1e9 / elapsedNanos : 0;
+        }
+
+        public String format() {
+            return String.format(Locale.US,
+                "%s: %d lines, %d skipped\nSent: %d (%.1f ev/s)\nCompleted: %d (%.1f ev/s), in flight %d\n"
+                    + "Send lag: p99 %.1f ms, max %.1f ms\nCompletion lag: p50 %.1f ms, p99 %.1f ms\n"
+                    + "Elapsed: %.2f s%s%s%s",
+                traceName, linesRead, skipped,
+                sent, sendRate(),
+                completed, completionRate(), inFlight(),
+                sendLagP99Nanos / 1e6, sendLagMaxNanos / 1e6,
+                completionLagP50Nanos / 1e6, completionLagP99Nanos / 1e6,
+                elapsedNanos / 1e9,
+                running ? "" : " (finished)",
+                rejected > 0 ? "\nRejected (pre-init buffer full): " + rejected : "",
+                error != null ? "\nError: " + error : "");
+        }
+    }
+
+    /**
+     * Called once when every sent event has completed, or the replay was stopped or failed
+     */
+    public interface Listener {
+        void onFinished(Stats stats);
+    }
+
+    private final Config config;
+    private final TraceSource source;
+    private final EdgeEventSender sender;
+    private final LatencyTracker latencyTracker;
+    private final EdgeResponseProcessor responseProcessor;
+    private final Listener listener;
+
+    private final Semaphore inFlightPermits;
+    private final AtomicLong linesRead = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+    private final LatencyHistogram sendLag = new LatencyHistogram();
+    private final LatencyHistogram completionLag = new LatencyHistogram();
+
+    private volatile boolean stopped;
+    private volatile boolean readerDone;
+    private volatile long startNanos;
+    private volatile long lastSendNanos;
+    private volatile long endNanos;
+    private volatile String error;
+    private Thread thread;
+
+    public TraceReplayer(Config config, TraceSource source, EdgeEventSender sender,
+                         LatencyTracker latencyTracker, EdgeResponseProcessor responseProcessor,
+                         Listener listener) {
+        this.config = config;
+        this.source = source;
+        this.sender = sender;
+        this.latencyTracker = latencyTracker;
+        this.responseProcessor = responseProcessor;
+        this.listener = listener;
+        this.inFlightPermits = new Semaphore(config.maxInFlight);
+    }
+
+    /**
+     * Start reading and sending on the replay thread. A replayer runs once.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Replay already started");
+        }
+        AppLog.d(() -> "Trace replay starting: " + source.name() + ", speed "
+            + (config.speed > 0 ? config.speed + "x" : "max") + ", max in flight " + config.maxInFlight);
+        thread = new Thread(this::run, "aep-trace-replay");
+        thread.start();
+    }
+
+    /**
+     * Stop reading. Events already handed to Edge still complete and are counted.
+     */
+    public void stop() {
+        stopped = true;
+        synchronized (this) {
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+        finish();
+    }
+
+    public Stats snapshot() {
+        long now = endNanos != 0 ? endNanos : System.nanoTime();
+        long start = startNanos;
+        long sendEnd = lastSendNanos != 0 ? lastSendNanos : now;
+        return new Stats(source.name(), linesRead.get(), skipped.get(), sent.get(), completed.get(),
+            rejected.get(),
+            start != 0 ? sendEnd - start : 0,
+            start != 0 ? now - start : 0,
+            sendLag.percentileNanos(99), sendLag.maxNanos(),
+            completionLag.percentileNanos(50), completionLag.percentileNanos(99),
+            !finished.get(), error);
+    }
+
+    private void run() {
+        startNanos = System.nanoTime();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(source.open(), StandardCharsets.UTF_8))) {
+            long firstT = Long.MIN_VALUE;
+            long dueNanos = startNanos;
+            String line;
+            while (!stopped && (line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                linesRead.incrementAndGet();
+
+                TraceEvent event;
+                try {
+                    event = parse(line);
+                } catch (IOException | RuntimeException e) {
+                    skipped.incrementAndGet();
+                    AppLog.w("Skipping trace line " + linesRead.get() + ": " + e.getMessage());
+                    continue;
+                }
+
+                // Recorded gap scaled by speed; lines without t follow the previous one
+                if (event.t != Long.MIN_VALUE && config.speed > 0) {
+                    if (firstT == Long.MIN_VALUE) {
+                        firstT = event.t;
+                    }
+                    dueNanos = startNanos + (long) ((event.t - firstT) * 1e6 / config.speed);
+                    long wait;
+                    while ((wait = dueNanos - System.nanoTime()) > 0 && !stopped) {
+                        LockSupport.parkNanos(wait);
+                    }
+                } else if (config.speed == 0) {
+                    dueNanos = System.nanoTime();
+                }
+
+                // Backpressure: wait for a completion before exceeding maxInFlight
+                inFlightPermits.acquire();
+                if (stopped) {
+                    inFlightPermits.release();
+                    break;
+                }
+                sendOne(event, dueNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            error = e.getMessage();
+            AppLog.e("Trace replay failed: " + e.getMessage(), e);
+        } finally {
+            readerDone = true;
+            AppLog.d(() -> "Trace replay: " + sent.get() + " events handed to Edge");
+            if (stopped || error != null) {
+                finish();
+            } else {
+                maybeFinish();
+            }
+        }
+    }
+
+    private void sendOne(TraceEvent traceEvent, long dueNanos) {
+        ExperienceEvent.Builder builder = new ExperienceEvent.Builder()
+            .setXdmSchema(traceEvent.xdm);
+        if (traceEvent.data != null) {
+            builder.setData(traceEvent.data);
+        }
+        ExperienceEvent event = builder.build();
+        String eventType = traceEvent.eventType;
+
+        long sendStart = latencyTracker.start();
+        sendLag.recordNanos(sendStart - dueNanos);
+        sent.incrementAndGet();
+        lastSendNanos = sendStart;
+
+        EdgeEventSender.Result result = sender.sendUngated(event, new EdgeClient.Callback() {
+            @Override
+            public void onComplete(List<EdgeClient.Handle> handles) {
+                latencyTracker.record(eventType, sendStart);
+                completionLag.recordNanos(System.nanoTime() - dueNanos);
+                responseProcessor.submit("Replayed event", eventType, handles);
+                completed.incrementAndGet();
+                inFlightPermits.release();
+                maybeFinish();
+            }
+
+            @Override
+            public void onFailed(Throwable error) {
+                // Buffered but never sent: counted like a rejection
+                rejected.incrementAndGet();
+                inFlightPermits.release();
+                maybeFinish();
+            }
+        });
+        if (result == EdgeEventSender.Result.REJECTED) {
+            // No callback will come for this event
+            rejected.incrementAndGet();
+            inFlightPermits.release();
+        }
+    }
+
+    private static final class TraceEvent {
+        long t = Long.MIN_VALUE;
+        Map<String, Object> xdm;
+        Map<String, Object> data;
+        String eventType;
+    }
+
+    private TraceEvent parse(String line) throws IOException {
+        TraceEvent event = parseLine(line);
+        if (config.restampEvents && event.xdm.containsKey("timestamp")) {
+            event.xdm.put("timestamp", EdgePayloads.currentTimestamp());
+        }
+        return event;
+    }
+
+    /**
+     * Stream the XDM of every event in a trace, one line at a time, e.g. to
+     * validate it before a replay; malformed lines are logged and left out.
+     * A read error surfaces from the iterator as an UncheckedIOException.
+     */
+    public static XdmReader readXdm(TraceSource source) throws IOException {
+        return new XdmReader(new BufferedReader(new InputStreamReader(source.open(), StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * The XDM payloads of a trace, parsed as they are pulled; close when done
+     */
+    public static final class XdmReader implements Iterator<Map<String, Object>>, Closeable {
+        private final BufferedReader reader;
+        private Map<String, Object> next;
+        private int lineNumber;
+
+        XdmReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                String line;
+                while (next == null && (line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        next = parseLine(line).xdm;
+                    } catch (IOException | RuntimeException e) {
+                        AppLog.w("Skipping trace line " + lineNumber + ": " + e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map<String, Object> xdm = next;
+            next = null;
+            return xdm;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static TraceEvent parseLine(String line) throws IOException {
+        TraceEvent event = new TraceEvent();
+        try (JsonReader reader = new JsonReader(new StringReader(line))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "t":
+                        event.t = reader.nextLong();
+                        break;
+                    case "xdm":
+                        event.xdm = JsonMaps.readObject(reader);
+                        break;
+                    case "data":
+                        event.data = JsonMaps.readObject(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+        }
+        if (event.xdm == null) {
+            throw new IOException("missing \"xdm\"");
+        }
+        Object type = event.xdm.get("eventType");
+        event.eventType = type instanceof String ? (String) type : "unknown";
+        return event;
+    }
+
+    private void maybeFinish() {
+        if (readerDone && completed.get() + rejected.get() >= sent.get()) {
+            finish();
+        }
+    }
+
+    private void finish() {
+        if (finished.compareAndSet(false, true)) {
+            endNanos = System.nanoTime();
+            Stats stats = snapshot();
+            AppLog.d(() -> "Trace replay finished:\n" + stats.format());
+            listener.onFinished(stats);
+        }
+    }
+}
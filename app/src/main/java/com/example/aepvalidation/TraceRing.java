@@ -0,0 +1,107 @@
+package com.example.aepvalidation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TraceRing - Compact, allocation-free in-memory trace of app events
+ *
+ * Each entry is two longs: a System.nanoTime stamp and a packed word holding
+ * a 16-bit event code and a 48-bit argument. Recording is a counter bump and
+ * two array stores, so it can stay on in hot paths. The ring keeps the most
+ * recent {@code capacity} entries and is only formatted as text when dumped.
+ * Entries racing with a wrap-around may be torn; this is a diagnostic aid,
+ * not an audit log.
+ */
+public final class TraceRing {
+
+    // Event codes
+    public static final int EVENT_SEND = 1;          // arg: event type code
+    public static final int EVENT_COMPLETE = 2;      // arg: latency in µs
+    public static final int EVENT_BUFFERED = 3;      // arg: pending count
+    public static final int EVENT_REJECTED = 4;      // arg: pending count
+    public static final int ECID_LOOKUP = 5;         // arg: source ordinal
+    public static final int ECID_RESULT = 6;         // arg: latency in µs
+    public static final int LOAD_RUN_START = 7;      // arg: total events
+    public static final int LOAD_RUN_FINISH = 8;     // arg: events completed
+    public static final int SDK_READY = 9;           // arg: ms since process start
+    public static final int EVENT_THROTTLED = 10;    // arg: unused
+    public static final int EVENT_DUPLICATE = 11;    // arg: unused
+    public static final int EVENT_INVALID = 12;      // arg: unused
+
+    // Argument values for EVENT_SEND
+    public static final int TYPE_VALIDATION = 1;
+    public static final int TYPE_PRODUCT_VIEWS = 2;
+    public static final int TYPE_OTHER = 0;
+
+    private static final String[] NAMES = {
+        "?", "send", "complete", "buffered", "rejected",
+        "ecid_lookup", "ecid_result", "load_start", "load_finish", "sdk_ready",
+        "throttled", "duplicate", "invalid"
+    };
+
+    private static final long ARG_MASK = (1L << 48) - 1;
+
+    private final long[] times;
+    private final long[] words;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();
+
+    /**
+     * @param capacity number of entries kept; rounded up to a power of two
+     */
+    public TraceRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.times = new long[size];
+        this.words = new long[size];
+        this.mask = size - 1;
+    }
+
+    public void record(int code, long arg) {
+        int index = (int) (cursor.getAndIncrement() & mask);
+        times[index] = System.nanoTime();
+        words[index] = ((long) code << 48) | (arg & ARG_MASK);
+    }
+
+    /**
+     * Event type code for EVENT_SEND
+     */
+    public static int typeCode(String eventType) {
+        if (EdgePayloads.EVENT_TYPE_VALIDATION.equals(eventType)) {
+            return TYPE_VALIDATION;
+        } else if (EdgePayloads.EVENT_TYPE_PRODUCT_VIEWS.equals(eventType)) {
+            return TYPE_PRODUCT_VIEWS;
+        }
+        return TYPE_OTHER;
+    }
+
+    /**
+     * Total entries recorded since creation, including overwritten ones
+     */
+    public long recorded() {
+        return cursor.get();
+    }
+
+    /**
+     * Write retained entries oldest first, one per line, with times relative to the first
+     */
+    public void dump(Writer out) throws IOException {
+        long end = cursor.get();
+        long start = Math.max(0, end - times.length);
+        long origin = end > start ? times[(int) (start & mask)] : 0;
+
+        out.write(String.format(Locale.US, "# %d entries (%d recorded)\n", end - start, end));
+        out.write("# +ms event arg\n");
+        for (long i = start; i < end; i++) {
+            int index = (int) (i & mask);
+            long word = words[index];
+            int code = (int) (word >>> 48);
+            String name = code < NAMES.length ? NAMES[code] : Integer.toString(code);
+            out.write(String.format(Locale.US, "%.3f %s %d\n",
+                (times[index] - origin) / 1e6, name, word & ARG_MASK));
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,772 @@
+package com.example.aepvalidation;
+
+import android.content.res.AssetManager;
+import android.util.JsonReader;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * XdmValidator - Checks XDM payloads against a JSON Schema before they are sent
+ *
+ * The schema (an XDM schema export, see assets/xdm/) is compiled once into a
+ * tree of nodes: property lookups become HashMaps, enums HashSets, patterns
+ * compiled Patterns, and local "#/definitions/..." refs shared subtrees.
+ * Compiled validators are cached per asset, so every caller shares one.
+ * Supported keywords: type, properties, required, additionalProperties
+ * (boolean), items, minItems, maxItems, enum, minLength, maxLength, pattern,
+ * format (date-time), minimum, maximum, $ref (local). Anything else is
+ * ignored and listed in {@link #unsupportedKeywords()}.
+ *
+ * {@link #validate} is thread-safe; for a valid payload it allocates only
+ * map iterators and pattern matchers, since paths and messages are only
+ * rendered when a check fails. Its count and cost are recorded, see
+ * {@link #format()}.
+ * {@link #validateAll} streams large batches across one thread per core and
+ * reports only through its {@link BatchResult}, so a batch run does not
+ * skew the send-path stats.
+ */
+public final class XdmValidator {
+
+    private static final int MAX_ERRORS_PER_EVENT = 8;
+    private static final int MIN_PARALLEL_BATCH = 256;
+    private static final int CHUNK_SIZE = 256;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MAX_SAMPLE_ERRORS = 10;
+
+    // Annotation keywords that never affect validation
+    private static final Set<String> IGNORED_KEYWORDS = new HashSet<>(Arrays.asList(
+        "$schema", "$id", "id", "title", "description", "definitions", "default", "examples"));
+
+    private static final Map<String, XdmValidator> CACHE = new ConcurrentHashMap<>();
+
+    private static volatile ExecutorService batchExecutor;
+    private static final int BATCH_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Result of one {@link #validateAll} call
+     */
+    public static final class BatchResult {
+        public final int events;
+        public final int invalid;
+        public final long wallNanos;
+        public final long cpuNanos;
+        public final int threads;
+        public final List<String> sampleErrors;
+
+        BatchResult(int events, int invalid, long wallNanos, long cpuNanos, int threads,
+                    List<String> sampleErrors) {
+            this.events = events;
+            this.invalid = invalid;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.threads = threads;
+            this.sampleErrors = sampleErrors;
+        }
+
+        public String format() {
+            StringBuilder sb = new StringBuilder(String.format(Locale.US,
+                "%d event(s), %d invalid, %.1f ms on %d thread(s) (%.0f events/s, %.1f µs/event)",
+                events, invalid, wallNanos / 1e6, threads,
+                wallNanos > 0 ? events / (wallNanos / 1e9) : 0,
+                events > 0 ? cpuNanos / 1e3 / events : 0));
+            for (String error : sampleErrors) {
+                sb.append("\n  ").append(error);
+            }
+            return sb.toString();
+        }
+    }
+
+    private final String name;
+    private final Node root;
+    private final Set<String> unsupported;
+
+    private final AtomicLong checked = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+    private final LatencyHistogram cost = new LatencyHistogram();
+
+    private XdmValidator(String name, Node root, Set<String> unsupported) {
+        this.name = name;
+        this.root = root;
+        this.unsupported = unsupported;
+    }
+
+    /**
+     * The validator for a schema asset, compiled on first use and cached
+     */
+    public static XdmValidator load(AssetManager assets, String asset) throws IOException {
+        XdmValidator cached = CACHE.get(asset);
+        if (cached != null) {
+            return cached;
+        }
+        Map<String, Object> schema;
+        try (JsonReader reader = new JsonReader(new InputStreamReader(assets.open(asset), StandardCharsets.UTF_8))) {
+            schema = JsonMaps.readObject(reader);
+        }
+        XdmValidator compiled = compile(asset, schema);
+        XdmValidator raced = CACHE.putIfAbsent(asset, compiled);
+        return raced != null ? raced : compiled;
+    }
+
+    /**
+     * Compile a schema already parsed into maps (objects as Map, arrays as List)
+     */
+    public static XdmValidator compile(String name, Map<String, Object> schema) {
+        Compiler compiler = new Compiler(schema);
+        Node root = compiler.compile(schema);
+        return new XdmValidator(name, root, compiler.unsupported);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Schema keywords this validator ignored because it does not implement them
+     */
+    public Set<String> unsupportedKeywords() {
+        return unsupported;
+    }
+
+    // =========================================================
+    // VALIDATION
+    // =========================================================
+
+    /**
+     * Check one XDM payload
+     *
+     * @return problems as "path: message", at most 8; empty if valid
+     */
+    public List<String> validate(Map<String, Object> xdm) {
+        long start = System.nanoTime();
+        List<String> errors = check(xdm);
+        cost.recordNanos(System.nanoTime() - start);
+
+        checked.incrementAndGet();
+        if (!errors.isEmpty()) {
+            invalid.incrementAndGet();
+        }
+        return errors;
+    }
+
+    private List<String> check(Map<String, Object> xdm) {
+        Scratch scratch = SCRATCH.get();
+        scratch.reset();
+        root.validate(xdm, scratch);
+        return scratch.errors.isEmpty()
+            ? Collections.emptyList() : new ArrayList<>(scratch.errors);
+    }
+
+    /**
+     * Check a stream of payloads, in parallel across cores when there are
+     * enough of them; blocks until every payload is checked. Payloads are
+     * pulled in fixed-size chunks and only a few chunks per thread are
+     * queued at a time, so a large trace is never held in memory at once.
+     */
+    public BatchResult validateAll(Iterator<? extends Map<String, Object>> payloads) throws InterruptedException {
+        long start = System.nanoTime();
+        AtomicInteger invalidCount = new AtomicInteger();
+        AtomicLong cpuNanos = new AtomicLong();
+        List<String> samples = Collections.synchronizedList(new ArrayList<>());
+
+        List<Map<String, Object>> chunk = nextChunk(payloads, MIN_PARALLEL_BATCH);
+        int size = chunk.size();
+        boolean parallel = payloads.hasNext();
+        int threads = parallel ? BATCH_THREADS : 1;
+
+        if (!parallel) {
+            validateChunk(chunk, 0, invalidCount, cpuNanos, samples);
+        } else {
+            ExecutorService executor = batchExecutor();
+            ArrayDeque<Future<?>> queued = new ArrayDeque<>();
+            int maxQueued = threads * CHUNKS_PER_THREAD;
+            try {
+                while (!chunk.isEmpty()) {
+                    if (queued.size() >= maxQueued) {
+                        await(queued.pollFirst());
+                    }
+                    List<Map<String, Object>> submitted = chunk;
+                    int firstIndex = size - chunk.size();
+                    queued.addLast(executor.submit(() ->
+                        validateChunk(submitted, firstIndex, invalidCount, cpuNanos, samples)));
+                    chunk = nextChunk(payloads, CHUNK_SIZE);
+                    size += chunk.size();
+                }
+                while (!queued.isEmpty()) {
+                    await(queued.pollFirst());
+                }
+            } finally {
+                // Only non-empty if reading or a check failed
+                for (Future<?> f : queued) {
+                    f.cancel(false);
+                }
+            }
+        }
+
+        List<String> sorted;
+        synchronized (samples) {
+            sorted = new ArrayList<>(new TreeSet<>(samples));
+        }
+        return new BatchResult(size, invalidCount.get(), System.nanoTime() - start, cpuNanos.get(),
+            threads, sorted.size() > MAX_SAMPLE_ERRORS ? sorted.subList(0, MAX_SAMPLE_ERRORS) : sorted);
+    }
+
+    private static List<Map<String, Object>> nextChunk(Iterator<? extends Map<String, Object>> payloads, int max) {
+        List<Map<String, Object>> chunk = new ArrayList<>(max);
+        while (chunk.size() < max && payloads.hasNext()) {
+            chunk.add(payloads.next());
+        }
+        return chunk;
+    }
+
+    private static void await(Future<?> f) throws InterruptedException {
+        try {
+            f.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch validation failed", e.getCause());
+        }
+    }
+
+    private void validateChunk(List<Map<String, Object>> chunk, int firstIndex,
+                               AtomicInteger invalidCount, AtomicLong cpuNanos, List<String> samples) {
+        long start = System.nanoTime();
+        for (int i = 0, n = chunk.size(); i < n; i++) {
+            List<String> errors = check(chunk.get(i));
+            if (!errors.isEmpty()) {
+                invalidCount.incrementAndGet();
+                if (samples.size() < MAX_SAMPLE_ERRORS) {
+                    samples.add(String.format(Locale.US, "#%05d %s", firstIndex + i, errors.get(0)));
+                }
+            }
+        }
+        cpuNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    private static ExecutorService batchExecutor() {
+        ExecutorService executor = batchExecutor;
+        if (executor == null) {
+            synchronized (XdmValidator.class) {
+                executor = batchExecutor;
+                if (executor == null) {
+                    AtomicInteger index = new AtomicInteger();
+                    executor = Executors.newFixedThreadPool(BATCH_THREADS, r -> {
+                        Thread t = new Thread(r, "xdm-validate-" + index.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+                    batchExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    // =========================================================
+    // STATS
+    // =========================================================
+
+    public long checkedCount() {
+        return checked.get();
+    }
+
+    public long invalidCount() {
+        return invalid.get();
+    }
+
+    public String format() {
+        return String.format(Locale.US,
+            "XDM validation: %d checked, %d invalid, cost p50 %.1f µs / p99 %.1f µs / max %.1f µs",
+            checked.get(), invalid.get(), cost.percentileNanos(50) / 1e3,
+            cost.percentileNanos(99) / 1e3, cost.maxNanos() / 1e3);
+    }
+
+    public void resetStats() {
+        checked.set(0);
+        invalid.set(0);
+        cost.reset();
+    }
+
+    // =========================================================
+    // SCRATCH
+    // Per-thread error list and path stack; the path is only turned into a
+    // string when a check fails.
+    // =========================================================
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private static final class Scratch {
+        final List<String> errors = new ArrayList<>(MAX_ERRORS_PER_EVENT);
+        String[] names = new String[16];
+        int[] indices = new int[16];
+        int depth;
+
+        void reset() {
+            errors.clear();
+            depth = 0;
+        }
+
+        void pushName(String name) {
+            grow();
+            names[depth] = name;
+            indices[depth++] = -1;
+        }
+
+        void pushIndex(int index) {
+            grow();
+            names[depth] = null;
+            indices[depth++] = index;
+        }
+
+        void pop() {
+            depth--;
+        }
+
+        boolean full() {
+            return errors.size() >= MAX_ERRORS_PER_EVENT;
+        }
+
+        void error(String message) {
+            if (full()) {
+                return;
+            }
+            StringBuilder path = new StringBuilder("xdm");
+            for (int i = 0; i < depth; i++) {
+                if (names[i] != null) {
+                    path.append('.').append(names[i]);
+                } else {
+                    path.append('[').append(indices[i]).append(']');
+                }
+            }
+            errors.add(path.append(": ").append(message).toString());
+        }
+
+        private void grow() {
+            if (depth == names.length) {
+                names = Arrays.copyOf(names, depth * 2);
+                indices = Arrays.copyOf(indices, depth * 2);
+            }
+        }
+    }
+
+    // =========================================================
+    // COMPILED NODES
+    // =========================================================
+
+    private abstract static class Node {
+        abstract void validate(Object value, Scratch scratch);
+    }
+
+    private static final Node ANY = new Node() {
+        @Override
+        void validate(Object value, Scratch scratch) {
+        }
+    };
+
+    /**
+     * Placeholder for a $ref, filled in once the target is compiled so
+     * recursive definitions work
+     */
+    private static final class RefNode extends Node {
+        Node target = ANY;
+
+        @Override
+        void validate(Object value, Scratch scratch) {
+            target.validate(value, scratch);
+        }
+    }
+
+    private static final class ObjectNode extends Node {
+        final Map<String, Node> properties;
+        final String[] required;
+        final boolean additionalAllowed;
+
+        ObjectNode(Map<String, Node> properties, String[] required, boolean additionalAllowed) {
+            this.properties = properties;
+            this.required = required;
+            this.additionalAllowed = additionalAllowed;
+        }
+
+        @Override
+        void validate(Object value, Scratch scratch) {
+            if (!(value instanceof Map)) {
+                scratch.error("expected object, got " + typeName(value));
+                return;
+            }
+            Map<?, ?> map = (Map<?, ?>) value;
+            for (String key : required) {
+                if (map.get(key) == null) {
+                    scratch.pushName(key);
+                    scratch.error("required field missing");
+                    scratch.pop();
+                }
+            }
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                if (scratch.full()) {
+                    return;
+                }
+                String key = String.valueOf(e.getKey());
+                Node node = properties.get(key);
+                scratch.pushName(key);
+                if (node != null) {
+                    if (e.getValue() != null) {
+                        node.validate(e.getValue(), scratch);
+                    }
+                } else if (!additionalAllowed) {
+                    scratch.error("field not in schema");
+                }
+                scratch.pop();
+            }
+        }
+    }
+
+    private static final class ArrayNode extends Node {
+        final Node items;
+        final int minItems;
+        final int maxItems;
+
+        ArrayNode(Node items, int minItems, int maxItems) {
+            this.items = items;
+            this.minItems = minItems;
+            this.maxItems = maxItems;
+        }
+
+        @Override
+        void validate(Object value, Scratch scratch) {
+            if (!(value instanceof List)) {
+                scratch.error("expected array, got " + typeName(value));
+                return;
+            }
+            List<?> list = (List<?>) value;
+            int size = list.size();
+            if (size < minItems) {
+                scratch.error("expected at least " + minItems + " item(s), got " + size);
+            } else if (size > maxItems) {
+                scratch.error("expected at most " + maxItems + " item(s), got " + size);
+            }
+            for (int i = 0; i < size && !scratch.full(); i++) {
+                Object item = list.get(i);
+                scratch.pushIndex(i);
+                if (item == null) {
+                    scratch.error("null item");
+                } else {
+                    items.validate(item, scratch);
+                }
+                scratch.pop();
+            }
+        }
+    }
+
+    private static final class StringNode extends Node {
+        final Set<String> allowed;
+        final int minLength;
+        final int maxLength;
+        final Pattern pattern;
+        final boolean dateTime;
+
+        StringNode(Set<String> allowed, int minLength, int maxLength, Pattern pattern, boolean dateTime) {
+            this.allowed = allowed;
+            this.minLength = minLength;
+            this.maxLength = maxLength;
+            this.pattern = pattern;
+            this.dateTime = dateTime;
+        }
+
+        @Override
+        void validate(Object value, Scratch scratch) {
+            if (!(value instanceof String)) {
+                scratch.error("expected string, got " + typeName(value));
+                return;
+            }
+            String s = (String) value;
+            if (allowed != null && !allowed.contains(s)) {
+                scratch.error("\"" + s + "\" is not one of " + allowed);
+                return;
+            }
+            if (s.length() < minLength) {
+                scratch.error("shorter than " + minLength + " character(s)");
+            } else if (s.length() > maxLength) {
+                scratch.error("longer than " + maxLength + " character(s)");
+            }
+            if (dateTime && !isDateTime(s)) {
+                scratch.error("\"" + s + "\" is not an ISO 8601 date-time");
+            }
+            if (pattern != null && !pattern.matcher(s).find()) {
+                scratch.error("\"" + s + "\" does not match " + pattern.pattern());
+            }
+        }
+    }
+
+    private static final class NumberNode extends Node {
+        final boolean integer;
+        final double minimum;
+        final double maximum;
+
+        NumberNode(boolean integer, double minimum, double maximum) {
+            this.integer = integer;
+            this.minimum = minimum;
+            this.maximum = maximum;
+        }
+
+        @Override
+        void validate(Object value, Scratch scratch) {
+            if (!(value instanceof Number)) {
+                scratch.error("expected " + (integer ? "integer" : "number") + ", got " + typeName(value));
+                return;
+            }
+            double d = ((Number) value).doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                scratch.error("not a finite number");
+                return;
+            }
+            if (integer && d != Math.rint(d)) {
+                scratch.error("expected integer, got " + value);
+            }
+            if (d < minimum) {
+                scratch.error(value + " is below the minimum " + minimum);
+            } else if (d > maximum) {
+                scratch.error(value + " is above the maximum " + maximum);
+            }
+        }
+    }
+
+    private static final Node BOOLEAN = new Node() {
+        @Override
+        void validate(Object value, Scratch scratch) {
+            if (!(value instanceof Boolean)) {
+                scratch.error("expected boolean, got " + typeName(value));
+            }
+        }
+    };
+
+    private static String typeName(Object value) {
+        if (value instanceof Map) {
+            return "object";
+        } else if (value instanceof List) {
+            return "array";
+        } else if (value instanceof String) {
+            return "string";
+        } else if (value instanceof Number) {
+            return "number";
+        } else if (value instanceof Boolean) {
+            return "boolean";
+        }
+        return value == null ? "null" : value.getClass().getSimpleName();
+    }
+
+    /**
+     * yyyy-MM-ddTHH:mm:ss, optional fraction, then Z or ±HH:mm; checked by
+     * hand because a parser would allocate for every event
+     */
+    static boolean isDateTime(String s) {
+        int n = s.length();
+        if (n < 20 || !digits(s, 0, 4) || s.charAt(4) != '-' || !digits(s, 5, 2) || s.charAt(7) != '-'
+            || !digits(s, 8, 2) || (s.charAt(10) != 'T' && s.charAt(10) != 't')
+            || !digits(s, 11, 2) || s.charAt(13) != ':' || !digits(s, 14, 2) || s.charAt(16) != ':'
+            || !digits(s, 17, 2)) {
+            return false;
+        }
+        int month = (s.charAt(5) - '0') * 10 + (s.charAt(6) - '0');
+        int day = (s.charAt(8) - '0') * 10 + (s.charAt(9) - '0');
+        int hour = (s.charAt(11) - '0') * 10 + (s.charAt(12) - '0');
+        int minute = (s.charAt(14) - '0') * 10 + (s.charAt(15) - '0');
+        int second = (s.charAt(17) - '0') * 10 + (s.charAt(18) - '0');
+        if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 60) {
+            return false;
+        }
+        int i = 19;
+        if (s.charAt(i) == '.') {
+            int fractionStart = ++i;
+            while (i < n && Character.isDigit(s.charAt(i))) {
+                i++;
+            }
+            if (i == fractionStart || i == n) {
+                return false;
+            }
+        }
+        char zone = s.charAt(i);
+        if (zone == 'Z' || zone == 'z') {
+            return i == n - 1;
+        }
+        return (zone == '+' || zone == '-') && i + 6 == n
+            && digits(s, i + 1, 2) && s.charAt(i + 3) == ':' && digits(s, i + 4, 2);
+    }
+
+    private static boolean digits(String s, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // =========================================================
+    // COMPILER
+    // =========================================================
+
+    private static final class Compiler {
+        final Map<String, Object> rootSchema;
+        final Map<String, RefNode> refs = new HashMap<>();
+        final Set<String> unsupported = new TreeSet<>();
+
+        Compiler(Map<String, Object> rootSchema) {
+            this.rootSchema = rootSchema;
+        }
+
+        @SuppressWarnings("unchecked")
+        Node compile(Map<String, Object> schema) {
+            for (String keyword : schema.keySet()) {
+                if (!isKnown(keyword)) {
+                    unsupported.add(keyword);
+                }
+            }
+
+            Object ref = schema.get("$ref");
+            if (ref instanceof String) {
+                return resolve((String) ref);
+            }
+
+            String type = schema.get("type") instanceof String ? (String) schema.get("type") : null;
+            if (type == null) {
+                type = schema.containsKey("properties") ? "object"
+                    : schema.containsKey("items") ? "array" : null;
+            }
+            if (type == null) {
+                return ANY;
+            }
+
+            switch (type) {
+                case "object": {
+                    Map<String, Node> properties = new HashMap<>();
+                    Object props = schema.get("properties");
+                    if (props instanceof Map) {
+                        for (Map.Entry<String, Object> e : ((Map<String, Object>) props).entrySet()) {
+                            properties.put(e.getKey(), e.getValue() instanceof Map
+                                ? compile((Map<String, Object>) e.getValue()) : ANY);
+                        }
+                    }
+                    List<String> required = new ArrayList<>();
+                    if (schema.get("required") instanceof List) {
+                        for (Object r : (List<Object>) schema.get("required")) {
+                            required.add(String.valueOf(r));
+                        }
+                    }
+                    // Without "properties" the object is free-form (e.g. identityMap)
+                    boolean additional = !Boolean.FALSE.equals(schema.get("additionalProperties"))
+                        || !(props instanceof Map);
+                    return new ObjectNode(properties, required.toArray(new String[0]), additional);
+                }
+                case "array": {
+                    Object items = schema.get("items");
+                    return new ArrayNode(items instanceof Map ? compile((Map<String, Object>) items) : ANY,
+                        intOr(schema.get("minItems"), 0), intOr(schema.get("maxItems"), Integer.MAX_VALUE));
+                }
+                case "string": {
+                    Set<String> allowed = null;
+                    if (schema.get("enum") instanceof List) {
+                        allowed = new HashSet<>();
+                        for (Object v : (List<Object>) schema.get("enum")) {
+                            allowed.add(String.valueOf(v));
+                        }
+                    }
+                    Object pattern = schema.get("pattern");
+                    Object format = schema.get("format");
+                    if (format != null && !"date-time".equals(format)) {
+                        unsupported.add("format:" + format);
+                    }
+                    return new StringNode(allowed,
+                        intOr(schema.get("minLength"), 0), intOr(schema.get("maxLength"), Integer.MAX_VALUE),
+                        pattern instanceof String ? Pattern.compile((String) pattern) : null,
+                        "date-time".equals(format));
+                }
+                case "integer":
+                case "number":
+                    return new NumberNode("integer".equals(type),
+                        doubleOr(schema.get("minimum"), Double.NEGATIVE_INFINITY),
+                        doubleOr(schema.get("maximum"), Double.POSITIVE_INFINITY));
+                case "boolean":
+                    return BOOLEAN;
+                default:
+                    unsupported.add("type:" + type);
+                    return ANY;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Node resolve(String ref) {
+            RefNode node = refs.get(ref);
+            if (node != null) {
+                return node;
+            }
+            node = new RefNode();
+            refs.put(ref, node);
+            if (!ref.startsWith("#/")) {
+                unsupported.add("$ref:" + ref);
+                return node;
+            }
+            Object target = rootSchema;
+            for (String part : ref.substring(2).split("/")) {
+                target = target instanceof Map ? ((Map<String, Object>) target).get(part) : null;
+            }
+            if (target instanceof Map) {
+                node.target = compile((Map<String, Object>) target);
+            } else {
+                unsupported.add("$ref:" + ref);
+            }
+            return node;
+        }
+
+        private static boolean isKnown(String keyword) {
+            switch (keyword) {
+                case "type":
+                case "properties":
+                case "required":
+                case "additionalProperties":
+                case "items":
+                case "minItems":
+                case "maxItems":
+                case "enum":
+                case "minLength":
+                case "maxLength":
+                case "pattern":
+                case "format":
+                case "minimum":
+                case "maximum":
+                case "$ref":
+                    return true;
+                default:
+                    return IGNORED_KEYWORDS.contains(keyword) || keyword.startsWith("meta:");
+            }
+        }
+
+        private static int intOr(Object value, int fallback) {
+            return value instanceof Number ? ((Number) value).intValue() : fallback;
+        }
+
+        private static double doubleOr(Object value, double fallback) {
+            return value instanceof Number ? ((Number) value).doubleValue() : fallback;
+        }
+    }
+}
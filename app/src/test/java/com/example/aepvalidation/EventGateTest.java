@@ -0,0 +1,91 @@
+package com.example.aepvalidation;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EventGateTest - Duplicate and rate-limit rules of EventGate
+ *
+ *   ./gradlew :app:testDebugUnitTest --tests '*EventGateTest'
+ *
+ * The cost of a check is measured by eventGateCheck in :microbenchmark.
+ */
+public class EventGateTest {
+
+    @Test
+    public void duplicateWithinWindowIsDropped() {
+        EventGate gate = new EventGate(Collections.emptyMap(), new EventGate.Limit(100, 100), 60_000);
+
+        // A double tap differs only in timestamp
+        assertEquals(EventGate.Decision.ALLOW,
+            gate.check(EdgePayloads.commerceXdm("2024-01-01T00:00:00.000Z"), EdgePayloads.commerceCustomData()));
+        assertEquals(EventGate.Decision.DUPLICATE,
+            gate.check(EdgePayloads.commerceXdm("2024-01-01T00:00:00.150Z"), EdgePayloads.commerceCustomData()));
+        assertEquals(EventGate.Decision.ALLOW,
+            gate.check(EdgePayloads.commerceXdm("2024-01-01T00:00:00.300Z", "SKU-2", "Other", 1, 5.0),
+                EdgePayloads.commerceCustomData()));
+        assertEquals(1, gate.deduplicatedCount());
+    }
+
+    @Test
+    public void concurrentDuplicatesAreAllowedOnce() throws Exception {
+        EventGate gate = new EventGate(Collections.emptyMap(),
+            new EventGate.Limit(Integer.MAX_VALUE, 1e12), 60_000);
+        int threads = 4;
+        int rounds = 2_000;
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        AtomicLong allowed = new AtomicLong();
+        List<Thread> senders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread sender = new Thread(() -> {
+                try {
+                    for (int round = 0; round < rounds; round++) {
+                        // All threads send the same payload at once, a new one each round
+                        Map<String, Object> xdm = EdgePayloads.commerceXdm("2024-01-01T00:00:00.000Z",
+                            "SKU-" + round, "Product " + round, 1, 9.99);
+                        barrier.await();
+                        if (gate.check(xdm, null) == EventGate.Decision.ALLOW) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+            senders.add(sender);
+            sender.start();
+        }
+        for (Thread sender : senders) {
+            sender.join();
+        }
+        assertEquals(rounds, allowed.get());
+        assertEquals((long) rounds * (threads - 1), gate.deduplicatedCount());
+    }
+
+    @Test
+    public void burstOverLimitIsThrottled() {
+        Map<String, EventGate.Limit> limits = new HashMap<>();
+        limits.put(EdgePayloads.EVENT_TYPE_VALIDATION, new EventGate.Limit(3, 0.001));
+        EventGate gate = new EventGate(limits, new EventGate.Limit(100, 100), 0);
+
+        int allowed = 0;
+        for (int i = 0; i < 10; i++) {
+            if (gate.check(EdgePayloads.basicXdm("ts-" + i), null) == EventGate.Decision.ALLOW) {
+                allowed++;
+            }
+        }
+        assertEquals(3, allowed);
+        assertEquals(7, gate.throttledCount());
+        // Other event types have their own bucket
+        assertEquals(EventGate.Decision.ALLOW, gate.check(EdgePayloads.commerceXdm("ts"), null));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.aepvalidation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+
+/**
+ * EventJournalTest - Reopening the journal after a clean and an unclean run
+ *
+ *   ./gradlew :app:testDebugUnitTest --tests '*EventJournalTest' -i
+ */
+public class EventJournalTest {
+
+    private static final int CAPACITY = 64 * 1024;
+    private static final String TIMESTAMP = "2024-01-01T00:00:00.000Z";
+
+    @Test
+    public void acknowledgedJournalIsReusedInPlace() throws Exception {
+        File file = new File(Files.createTempDirectory("journal").toFile(), "events.journal");
+        try (EventJournal journal = EventJournal.open(file, CAPACITY)) {
+            for (int i = 0; i < 3; i++) {
+                journal.markCompleted(append(journal));
+            }
+        }
+        Object fileKey = fileKey(file);
+
+        try (EventJournal reopened = EventJournal.open(file, CAPACITY)) {
+            assertEquals(0, reopened.recovered().size());
+            // One unacknowledged event, shorter than the stale records behind it
+            append(reopened, EdgePayloads.commerceXdm(TIMESTAMP), null);
+        }
+        assertEquals("no new file was preallocated", fileKey, fileKey(file));
+        assertEquals(CAPACITY, file.length());
+
+        try (EventJournal recovered = EventJournal.open(file, CAPACITY)) {
+            assertEquals(1, recovered.recovered().size());
+        }
+    }
+
+    @Test
+    public void unacknowledgedJournalIsCompacted() throws Exception {
+        File file = new File(Files.createTempDirectory("journal").toFile(), "events.journal");
+        try (EventJournal journal = EventJournal.open(file, CAPACITY)) {
+            journal.markCompleted(append(journal));
+            append(journal);
+            journal.markCompleted(append(journal));
+        }
+        Object fileKey = fileKey(file);
+
+        try (EventJournal reopened = EventJournal.open(file, CAPACITY)) {
+            assertEquals(1, reopened.recovered().size());
+        }
+        assertNotEquals(fileKey, fileKey(file));
+    }
+
+    private static long append(EventJournal journal) {
+        return append(journal, EdgePayloads.commerceXdm(TIMESTAMP), EdgePayloads.commerceCustomData());
+    }
+
+    private static long append(EventJournal journal, Map<String, Object> xdm,
+                               Map<String, Object> data) {
+        long handle = journal.append(xdm, data);
+        assertNotEquals(-1L, handle);
+        return handle;
+    }
+
+    private static Object fileKey(File file) throws IOException {
+        return Files.readAttributes(file.toPath(), BasicFileAttributes.class).fileKey();
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.aepvalidation;
+
+import com.adobe.marketing.mobile.ExperienceEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * FakeEdge - In-process Edge network and identity service for JVM tests
+ *
+ * Implements both client interfaces. Each call completes on one of the
+ * fake's own threads after a random latency drawn from the configured range,
+ * like the SDK's callback threads. Failures are injected per call:
+ *   - drop: the callback never runs, as when a request is lost
+ *   - fail: Edge completes with no handles, identity lookups report an error
+ * Successful sends answer with generated handles whose payload items carry
+ * the fields EdgeResponseProcessor extracts (scope, hint, key, id).
+ */
+public final class FakeEdge implements EdgeClient, IdentityClient {
+
+    /**
+     * Latency, failure rates and response shape
+     */
+    public static final class Config {
+        public final long minLatencyMicros;
+        public final long maxLatencyMicros;
+        public final double dropRate;
+        public final double failureRate;
+        public final int handlesPerEvent;
+        public final int itemsPerHandle;
+        public final int threads;
+
+        public Config(long minLatencyMicros, long maxLatencyMicros, double dropRate, double failureRate,
+                      int handlesPerEvent, int itemsPerHandle, int threads) {
+            if (minLatencyMicros < 0 || maxLatencyMicros < minLatencyMicros) {
+                throw new IllegalArgumentException("Latency range must satisfy 0 <= min <= max");
+            }
+            if (dropRate < 0 || failureRate < 0 || dropRate + failureRate > 1) {
+                throw new IllegalArgumentException("Drop and failure rates must be >= 0 and sum to <= 1");
+            }
+            if (handlesPerEvent < 0 || itemsPerHandle < 0 || threads <= 0) {
+                throw new IllegalArgumentException("Counts must be >= 0 and threads > 0");
+            }
+            this.minLatencyMicros = minLatencyMicros;
+            this.maxLatencyMicros = maxLatencyMicros;
+            this.dropRate = dropRate;
+            this.failureRate = failureRate;
+            this.handlesPerEvent = handlesPerEvent;
+            this.itemsPerHandle = itemsPerHandle;
+            this.threads = threads;
+        }
+
+        /**
+         * Answers immediately, never fails, two handles of two items each
+         */
+        public static Config instant() {
+            return new Config(0, 0, 0, 0, 2, 2, 2);
+        }
+    }
+
+    private static final String[] HANDLE_TYPES = {
+        "state:store", "locationHint:result", "identity:result", "personalization:decisions"
+    };
+
+    private final Config config;
+    private final ScheduledExecutorService executor;
+    private final List<Consumer<String>> resetListeners = new CopyOnWriteArrayList<>();
+    private final Map<EcidService.Source, String> ecids = new HashMap<>();
+    private final AtomicInteger identityGeneration = new AtomicInteger();
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong handles = new AtomicLong();
+    private final AtomicLong ecidLookups = new AtomicLong();
+
+    public FakeEdge(Config config) {
+        this.config = config;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(config.threads, r -> {
+            Thread t = new Thread(r, "fake-edge-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        rotateEcids();
+    }
+
+    // =========================================================
+    // EDGE
+    // =========================================================
+
+    @Override
+    public void sendEvent(ExperienceEvent event, EdgeClient.Callback callback) {
+        long sequence = sent.incrementAndGet();
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < config.dropRate) {
+            dropped.incrementAndGet();
+            return;
+        }
+        boolean fail = roll < config.dropRate + config.failureRate;
+        Map<String, Object> xdm = event.getXdmSchema();
+        Object eventType = xdm != null ? xdm.get("eventType") : null;
+
+        schedule(() -> {
+            List<Handle> response;
+            if (fail) {
+                failed.incrementAndGet();
+                response = Collections.emptyList();
+            } else {
+                response = generateHandles(sequence, eventType);
+                handles.addAndGet(response.size());
+            }
+            completed.incrementAndGet();
+            callback.onComplete(response);
+        });
+    }
+
+    /**
+     * Send callback for events that are expected to reach Edge;
+     * a call to onFailed fails the test
+     */
+    public static EdgeClient.Callback onComplete(Consumer<List<Handle>> onComplete) {
+        return new EdgeClient.Callback() {
+            @Override
+            public void onComplete(List<Handle> handles) {
+                onComplete.accept(handles);
+            }
+
+            @Override
+            public void onFailed(Throwable error) {
+                throw new AssertionError("Event was not sent", error);
+            }
+        };
+    }
+
+    private List<Handle> generateHandles(long sequence, Object eventType) {
+        List<Handle> response = new ArrayList<>(config.handlesPerEvent);
+        for (int h = 0; h < config.handlesPerEvent; h++) {
+            String type = HANDLE_TYPES[h % HANDLE_TYPES.length];
+            List<Map<String, Object>> payload = new ArrayList<>(config.itemsPerHandle);
+            for (int i = 0; i < config.itemsPerHandle; i++) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("scope", "EdgeNetwork");
+                item.put("hint", "or2");
+                item.put("key", "kndctr_fake_" + i);
+                item.put("id", sequence + "-" + h + "-" + i);
+                item.put("maxAge", 1800);
+                item.put("eventType", String.valueOf(eventType));
+                payload.add(item);
+            }
+            response.add(new Handle(type, payload));
+        }
+        return response;
+    }
+
+    // =========================================================
+    // IDENTITY
+    // =========================================================
+
+    @Override
+    public void getExperienceCloudId(EcidService.Source source, IdentityClient.Callback callback) {
+        ecidLookups.incrementAndGet();
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < config.dropRate) {
+            dropped.incrementAndGet();
+            return;
+        }
+        boolean fail = roll < config.dropRate + config.failureRate;
+        schedule(() -> {
+            if (fail) {
+                failed.incrementAndGet();
+                callback.onError("Injected failure");
+            } else {
+                String ecid;
+                synchronized (ecids) {
+                    ecid = ecids.get(source);
+                }
+                callback.onEcid(ecid);
+            }
+        });
+    }
+
+    @Override
+    public void addResetListener(Consumer<String> listener) {
+        resetListeners.add(listener);
+    }
+
+    /**
+     * Issue new ECIDs and notify reset listeners, like MobileCore.resetIdentities
+     */
+    public void resetIdentities() {
+        rotateEcids();
+        for (Consumer<String> listener : resetListeners) {
+            listener.accept("fake identity reset");
+        }
+    }
+
+    public String currentEcid(EcidService.Source source) {
+        synchronized (ecids) {
+            return ecids.get(source);
+        }
+    }
+
+    private void rotateEcids() {
+        int generation = identityGeneration.incrementAndGet();
+        synchronized (ecids) {
+            for (EcidService.Source source : EcidService.Source.values()) {
+                // ECIDs are 38 digits
+                ecids.put(source, String.format(Locale.US, "%019d%019d",
+                    generation, ThreadLocalRandom.current().nextLong(Long.MAX_VALUE)));
+            }
+        }
+    }
+
+    // =========================================================
+    // STATS
+    // =========================================================
+
+    public long sentCount() {
+        return sent.get();
+    }
+
+    public long completedCount() {
+        return completed.get();
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    public long failedCount() {
+        return failed.get();
+    }
+
+    public long handleCount() {
+        return handles.get();
+    }
+
+    public long ecidLookupCount() {
+        return ecidLookups.get();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void schedule(Runnable completion) {
+        long latency = config.maxLatencyMicros > config.minLatencyMicros
+            ? ThreadLocalRandom.current().nextLong(config.minLatencyMicros, config.maxLatencyMicros + 1)
+            : config.minLatencyMicros;
+        if (latency == 0) {
+            executor.execute(completion);
+        } else {
+            executor.schedule(completion, latency, TimeUnit.MICROSECONDS);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.aepvalidation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.adobe.marketing.mobile.ExperienceEvent;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * FakeEdgePipelineTest - The send pipeline against FakeEdge, no device or network
+ *
+ *   ./gradlew :app:testDebugUnitTest --tests '*FakeEdgePipelineTest' -i
+ *
+ * Runs many independent scenarios in parallel through EdgeEventSender and
+ * EdgeResponseProcessor and prints the pipeline's own throughput and
+ * send-to-callback latency, which with an instant fake is pure app overhead.
+ */
+public class FakeEdgePipelineTest {
+
+    private static final int SCENARIOS = 64;
+    private static final int EVENTS_PER_SCENARIO = 250;
+    private static final long WAIT_SECONDS = 30;
+
+    @Test
+    public void parallelScenariosCompleteAndAreSummarized() throws Exception {
+        FakeEdge edge = new FakeEdge(FakeEdge.Config.instant());
+        EdgeEventSender sender = readySender(edge);
+        EdgeResponseProcessor processor = new EdgeResponseProcessor(null, "test");
+        int total = SCENARIOS * EVENTS_PER_SCENARIO;
+        long expectedHandles = (long) total * FakeEdge.Config.instant().handlesPerEvent;
+        AtomicLong summarizedHandles = new AtomicLong();
+        CompletableFuture<Void> allSummarized = new CompletableFuture<>();
+        processor.setListener(batch -> {
+            if (summarizedHandles.addAndGet(batch.handles) >= expectedHandles) {
+                allSummarized.complete(null);
+            }
+        });
+
+        CountDownLatch done = new CountDownLatch(total);
+        LatencyHistogram latency = new LatencyHistogram();
+        ExecutorService scenarios = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int s = 0; s < SCENARIOS; s++) {
+            int scenario = s;
+            futures.add(scenarios.submit(() -> {
+                for (int i = 0; i < EVENTS_PER_SCENARIO; i++) {
+                    long sendStart = System.nanoTime();
+                    ExperienceEvent event = commerceEvent(scenario, i);
+                    EdgeEventSender.Result result = sender.sendUngated(event, FakeEdge.onComplete(handles -> {
+                        latency.recordNanos(System.nanoTime() - sendStart);
+                        processor.submit("scenario " + scenario, EdgePayloads.EVENT_TYPE_PRODUCT_VIEWS, handles);
+                        done.countDown();
+                    }));
+                    assertEquals(EdgeEventSender.Result.SENT, result);
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        assertTrue("callbacks timed out", done.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        long elapsed = System.nanoTime() - start;
+        scenarios.shutdown();
+
+        System.out.println(String.format(Locale.US,
+            "%d scenarios x %d events: %.0f events/s, send->callback p50 %.1f µs, p99 %.1f µs, max %.1f µs",
+            SCENARIOS, EVENTS_PER_SCENARIO, total / (elapsed / 1e9),
+            latency.percentileNanos(50) / 1e3, latency.percentileNanos(99) / 1e3, latency.maxNanos() / 1e3));
+
+        assertEquals(total, edge.completedCount());
+        assertEquals(expectedHandles, edge.handleCount());
+
+        // The processor publishes once per batch window
+        allSummarized.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(expectedHandles, summarizedHandles.get());
+        edge.shutdown();
+    }
+
+    @Test
+    public void injectedFailuresAreAccountedFor() throws Exception {
+        FakeEdge edge = new FakeEdge(new FakeEdge.Config(100, 2_000, 0.2, 0.1, 1, 1, 4));
+        EdgeEventSender sender = readySender(edge);
+        int total = 2_000;
+        AtomicLong callbacks = new AtomicLong();
+        AtomicLong emptyResponses = new AtomicLong();
+        Semaphore calledBack = new Semaphore(0);
+
+        for (int i = 0; i < total; i++) {
+            sender.sendUngated(commerceEvent(0, i), FakeEdge.onComplete(handles -> {
+                callbacks.incrementAndGet();
+                if (handles.isEmpty()) {
+                    emptyResponses.incrementAndGet();
+                }
+                calledBack.release();
+            }));
+        }
+        // Drops are decided when the event is sent, so the count is final here
+        assertTrue("callbacks timed out",
+            calledBack.tryAcquire(total - (int) edge.droppedCount(), WAIT_SECONDS, TimeUnit.SECONDS));
+
+        assertEquals(total, edge.sentCount());
+        assertEquals("every event is either dropped or called back",
+            total, callbacks.get() + edge.droppedCount());
+        assertEquals(edge.failedCount(), emptyResponses.get());
+        // 20% drops and 10% failures, with a wide margin for randomness
+        assertTrue(edge.droppedCount() > total / 10 && edge.droppedCount() < total * 3 / 10);
+        assertTrue(edge.failedCount() > total / 20 && edge.failedCount() < total * 2 / 10);
+        edge.shutdown();
+    }
+
+    @Test
+    public void eventsWaitForReadinessInOrder() throws Exception {
+        FakeEdge edge = new FakeEdge(new FakeEdge.Config(0, 0, 0, 0, 0, 0, 1));
+        CompletableFuture<Void> readiness = new CompletableFuture<>();
+        EdgeEventSender sender = new EdgeEventSender(edge, readiness, 4);
+        List<Integer> completionOrder = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(4);
+
+        for (int i = 0; i < 5; i++) {
+            int index = i;
+            EdgeEventSender.Result result = sender.send(commerceEvent(0, i), FakeEdge.onComplete(handles -> {
+                synchronized (completionOrder) {
+                    completionOrder.add(index);
+                }
+                done.countDown();
+            }));
+            assertEquals(i < 4 ? EdgeEventSender.Result.BUFFERED : EdgeEventSender.Result.REJECTED, result);
+        }
+        assertEquals(0, edge.sentCount());
+
+        readiness.complete(null);
+        assertTrue(done.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(4, edge.sentCount());
+        // A single fake thread completes in submission order
+        synchronized (completionOrder) {
+            assertEquals(List.of(0, 1, 2, 3), completionOrder);
+        }
+        edge.shutdown();
+    }
+
+    @Test
+    public void failedReadinessFailsBufferedEventsAndRejectsLaterOnes() throws Exception {
+        FakeEdge edge = new FakeEdge(new FakeEdge.Config(0, 0, 0, 0, 0, 0, 1));
+        CompletableFuture<Void> readiness = new CompletableFuture<>();
+        EdgeEventSender sender = new EdgeEventSender(edge, readiness, 4);
+        File journalFile = new File(Files.createTempDirectory("journal").toFile(), "events.journal");
+        EventJournal journal = EventJournal.open(journalFile, 64 * 1024);
+        sender.attachJournal(journal);
+        AtomicLong completed = new AtomicLong();
+        List<Throwable> failures = new ArrayList<>();
+        EdgeClient.Callback callback = new EdgeClient.Callback() {
+            @Override
+            public void onComplete(List<EdgeClient.Handle> handles) {
+                completed.incrementAndGet();
+            }
+
+            @Override
+            public void onFailed(Throwable error) {
+                synchronized (failures) {
+                    failures.add(error);
+                }
+            }
+        };
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(EdgeEventSender.Result.BUFFERED, sender.send(commerceEvent(0, i), callback));
+        }
+        IllegalStateException cause = new IllegalStateException("registerExtensions failed");
+        readiness.completeExceptionally(cause);
+
+        assertEquals(0, completed.get());
+        synchronized (failures) {
+            assertEquals(3, failures.size());
+            for (Throwable failure : failures) {
+                assertSame(cause, failure);
+            }
+        }
+        // Never sent, so still in the journal for the next launch
+        journal.close();
+        try (EventJournal reopened = EventJournal.open(journalFile, 64 * 1024)) {
+            assertEquals(3, reopened.recovered().size());
+        }
+
+        assertTrue(sender.isFailed());
+        assertEquals(0, sender.pendingCount());
+        assertEquals(EdgeEventSender.Result.REJECTED, sender.send(commerceEvent(0, 3), callback));
+        assertEquals(0, edge.sentCount());
+        edge.shutdown();
+    }
+
+    @Test
+    public void rejectedEventIsNotRecoveredFromJournal() throws Exception {
+        FakeEdge edge = new FakeEdge(new FakeEdge.Config(0, 0, 0, 0, 0, 0, 1));
+        // Never ready, room for one buffered event
+        EdgeEventSender sender = new EdgeEventSender(edge, new CompletableFuture<>(), 1);
+        File journalFile = new File(Files.createTempDirectory("journal").toFile(), "events.journal");
+        EventJournal journal = EventJournal.open(journalFile, 64 * 1024);
+        sender.attachJournal(journal);
+
+        assertEquals(EdgeEventSender.Result.BUFFERED,
+            sender.sendUngated(commerceEvent(0, 0), FakeEdge.onComplete(handles -> { })));
+        assertEquals(EdgeEventSender.Result.REJECTED,
+            sender.sendUngated(commerceEvent(0, 1), FakeEdge.onComplete(handles -> { })));
+
+        // Only the buffered event may still reach Edge, so only it is replayed
+        journal.close();
+        try (EventJournal reopened = EventJournal.open(journalFile, 64 * 1024)) {
+            assertEquals(1, reopened.recovered().size());
+        }
+        edge.shutdown();
+    }
+
+    @Test
+    public void ecidIsCachedUntilIdentityReset() throws Exception {
+        FakeEdge edge = new FakeEdge(new FakeEdge.Config(100, 500, 0, 0, 0, 0, 2));
+        EcidService ecids = new EcidService(edge, 60_000);
+        ecids.watchForResets();
+
+        String first = lookup(ecids, EcidService.Source.EDGE_IDENTITY);
+        assertEquals(edge.currentEcid(EcidService.Source.EDGE_IDENTITY), first);
+        assertEquals(first, lookup(ecids, EcidService.Source.EDGE_IDENTITY));
+        assertEquals("second lookup is served from cache", 1, edge.ecidLookupCount());
+
+        edge.resetIdentities();
+        String afterReset = lookup(ecids, EcidService.Source.EDGE_IDENTITY);
+        assertNotEquals(first, afterReset);
+        assertEquals(2, edge.ecidLookupCount());
+        edge.shutdown();
+    }
+
+    @Test
+    public void ecidFailureReachesCaller() throws Exception {
+        FakeEdge edge = new FakeEdge(new FakeEdge.Config(0, 0, 0, 1, 0, 0, 1));
+        EcidService ecids = new EcidService(edge, 60_000);
+        AtomicReference<String> error = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        ecids.get(EcidService.Source.IDENTITY, new EcidService.Callback() {
+            @Override
+            public void onEcid(String ecid, boolean fromCache) {
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String e) {
+                error.set(e);
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals("Injected failure", error.get());
+        edge.shutdown();
+    }
+
+    private static EdgeEventSender readySender(FakeEdge edge) {
+        return new EdgeEventSender(edge, CompletableFuture.completedFuture(null),
+            EdgeEventSender.DEFAULT_BUFFER_CAPACITY);
+    }
+
+    private static ExperienceEvent commerceEvent(int scenario, int index) {
+        return new ExperienceEvent.Builder()
+            .setXdmSchema(EdgePayloads.commerceXdm("2024-01-01T00:00:00.000Z",
+                "SKU-" + scenario + "-" + index, "Product " + index, 1, 9.99))
+            .setData(EdgePayloads.commerceCustomData())
+            .build();
+    }
+
+    private static String lookup(EcidService ecids, EcidService.Source source) throws Exception {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        ecids.get(source, new EcidService.Callback() {
+            @Override
+            public void onEcid(String ecid, boolean fromCache) {
+                result.complete(ecid);
+            }
+
+            @Override
+            public void onError(String error) {
+                result.completeExceptionally(new AssertionError(error));
+            }
+        });
+        return result.get(WAIT_SECONDS, TimeUnit.SECONDS);
+    }
+}
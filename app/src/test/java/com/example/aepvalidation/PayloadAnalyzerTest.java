@@ -0,0 +1,98 @@
+package com.example.aepvalidation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.adobe.marketing.mobile.ExperienceEvent;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PayloadAnalyzerTest - Sizes and flagged fields for the app's own payloads
+ *
+ *   ./gradlew :app:testDebugUnitTest --tests '*PayloadAnalyzerTest' -i
+ *
+ * Prints the rolling summary, as shown in the latency panel.
+ */
+public class PayloadAnalyzerTest {
+
+    private static final String TIMESTAMP = "2024-01-01T00:00:00.000Z";
+    private static final long WAIT_MS = 30_000;
+
+    @Test
+    public void rawSizeMatchesSerializedEvent() throws Exception {
+        PayloadAnalyzer analyzer = new PayloadAnalyzer();
+        Map<String, Object> xdm = EdgePayloads.commerceXdm(TIMESTAMP);
+        Map<String, Object> data = EdgePayloads.commerceCustomData();
+        analyzer.submit(xdm, data);
+        awaitAnalyzed(analyzer, 1);
+
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("xdm", xdm);
+        envelope.put("data", data);
+        int expected = new JsonByteWriter().write(ByteBuffer.allocate(64 * 1024), 0, envelope);
+
+        String summary = analyzer.format();
+        System.out.println(summary);
+        assertTrue(summary, summary.contains(EdgePayloads.EVENT_TYPE_PRODUCT_VIEWS + ": 1 sent, last 1 raw avg "
+            + EdgeResponseProcessor.formatBytes(expected)));
+    }
+
+    @Test
+    public void repeatedDuplicatedAndEmptyFieldsAreFlagged() throws Exception {
+        PayloadAnalyzer analyzer = new PayloadAnalyzer();
+        int events = 50;
+        for (int i = 0; i < events; i++) {
+            String timestamp = String.format("2024-01-01T00:00:%02d.000Z", i);
+            Map<String, Object> xdm = EdgePayloads.commerceXdm(timestamp, "SKU-" + i, "Product " + i, 1, 9.99);
+            Map<String, Object> data = new HashMap<>(EdgePayloads.commerceCustomData());
+            Map<String, Object> action = new HashMap<>();
+            action.put("sentAt", timestamp);
+            action.put("note", "");
+            data.put("action", action);
+            analyzer.submit(xdm, data);
+        }
+        awaitAnalyzed(analyzer, events);
+
+        String summary = analyzer.format();
+        System.out.println(summary);
+        assertTrue(summary, summary.contains("data.action.sentAt repeats xdm.timestamp"));
+        assertTrue(summary, summary.contains("data.action.note empty in 50 of 50"));
+        assertTrue(summary, summary.contains("same value in 50 of 50 " + EdgePayloads.EVENT_TYPE_PRODUCT_VIEWS));
+        // Fields that change per event are not flagged
+        assertTrue(summary, !summary.contains("productListItems[].SKU"));
+        assertTrue(summary, !summary.contains("xdm.eventType"));
+        assertEquals(0, analyzer.skippedCount());
+    }
+
+    @Test
+    public void rejectedEventsAreNotMeasured() throws Exception {
+        FakeEdge edge = new FakeEdge(FakeEdge.Config.instant());
+        // Never ready, room for one buffered event
+        EdgeEventSender sender = new EdgeEventSender(edge, new CompletableFuture<>(), 1);
+        PayloadAnalyzer analyzer = new PayloadAnalyzer();
+        sender.setAnalyzer(analyzer);
+        ExperienceEvent event = new ExperienceEvent.Builder()
+            .setXdmSchema(EdgePayloads.commerceXdm(TIMESTAMP))
+            .setData(EdgePayloads.commerceCustomData())
+            .build();
+
+        assertEquals(EdgeEventSender.Result.BUFFERED, sender.sendUngated(event, FakeEdge.onComplete(handles -> { })));
+        assertEquals(EdgeEventSender.Result.REJECTED, sender.sendUngated(event, FakeEdge.onComplete(handles -> { })));
+        awaitAnalyzed(analyzer, 1);
+        assertTrue(analyzer.format(), analyzer.format().contains(EdgePayloads.EVENT_TYPE_PRODUCT_VIEWS + ": 1 sent"));
+        edge.shutdown();
+    }
+
+    private static void awaitAnalyzed(PayloadAnalyzer analyzer, long count) throws InterruptedException {
+        assertTrue("analyzer timed out", analyzer.awaitIdle(WAIT_MS, TimeUnit.MILLISECONDS));
+        assertEquals(count, analyzer.analyzedCount());
+    }
+}
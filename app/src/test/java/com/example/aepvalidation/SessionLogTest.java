@@ -0,0 +1,155 @@
+package com.example.aepvalidation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * SessionLogTest - Rotation, compression, restart and export of the session log
+ *
+ *   ./gradlew :app:testDebugUnitTest --tests '*SessionLogTest' -i
+ *
+ * The burst test prints the writer's throughput and peak queue depth.
+ */
+public class SessionLogTest {
+
+    private static final long WAIT_SECONDS = 30;
+
+    @Test
+    public void rotatedSegmentsExportInOrder() throws Exception {
+        File dir = tempDir();
+        SessionLog log = new SessionLog(dir, new SessionLog.Config(4 * 1024, 1000, 10_000));
+        for (int i = 0; i < 2_000; i++) {
+            log.append("line " + i);
+        }
+        List<String> lines = export(log, new File(dir, "export/session.log.gz"));
+        log.close();
+
+        assertTrue("segments rotated", log.rotationCount() > 2);
+        assertEquals(2_000, log.writtenCount());
+        List<String> body = withoutHeaders(lines);
+        assertEquals(2_000, body.size());
+        for (int i = 0; i < body.size(); i++) {
+            assertEquals("line " + i, body.get(i));
+        }
+    }
+
+    @Test
+    public void oldSegmentsArePruned() throws Exception {
+        File dir = tempDir();
+        SessionLog log = new SessionLog(dir, new SessionLog.Config(1024, 3, 10_000));
+        for (int i = 0; i < 5_000; i++) {
+            log.append("line " + i);
+        }
+        List<String> body = withoutHeaders(export(log, new File(dir, "export/session.log.gz")));
+        log.close();
+
+        int segments = 0;
+        for (File f : dir.listFiles()) {
+            if (f.getName().endsWith(".log.gz")) {
+                segments++;
+            }
+        }
+        assertEquals(3, segments);
+        assertEquals("line 4999", body.get(body.size() - 1));
+        assertTrue(body.size() < 5_000);
+    }
+
+    @Test
+    public void previousSessionIsKeptAfterRestart() throws Exception {
+        File dir = tempDir();
+        SessionLog first = new SessionLog(dir, new SessionLog.Config(1024 * 1024, 10, 1_000));
+        first.append("before restart");
+        first.close();
+
+        SessionLog second = new SessionLog(dir, new SessionLog.Config(1024 * 1024, 10, 1_000));
+        second.append("after restart");
+        List<String> lines = export(second, new File(dir, "export/session.log.gz"));
+        second.close();
+
+        assertEquals(List.of("before restart", "after restart"), withoutHeaders(lines));
+        assertEquals(2, lines.size() - withoutHeaders(lines).size());
+    }
+
+    @Test
+    public void burstFromManyThreadsIsWrittenOrCounted() throws Exception {
+        File dir = tempDir();
+        SessionLog log = new SessionLog(dir, new SessionLog.Config(256 * 1024, 100, 8_192));
+        int threads = 4;
+        int perThread = 50_000;
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    log.append(LogLines.stamp("producer " + id + " event " + i));
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        log.close();
+
+        System.out.println(log.format());
+        assertEquals(threads * perThread, log.writtenCount() + log.droppedCount());
+        assertEquals(0, log.queueDepth());
+    }
+
+    private static List<String> export(SessionLog log, File destination) throws Exception {
+        CompletableFuture<File> result = new CompletableFuture<>();
+        log.export(destination, new SessionLog.ExportCallback() {
+            @Override
+            public void onExported(File file, int segments, long bytes) {
+                result.complete(file);
+            }
+
+            @Override
+            public void onError(IOException error) {
+                result.completeExceptionally(error);
+            }
+        });
+        File file = result.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static List<String> withoutHeaders(List<String> lines) {
+        List<String> body = new ArrayList<>();
+        for (String line : lines) {
+            if (!line.startsWith("=== Session started")) {
+                body.add(line);
+            }
+        }
+        return body;
+    }
+
+    private static File tempDir() throws IOException {
+        File dir = Files.createTempDirectory("session-log").toFile();
+        dir.deleteOnExit();
+        return dir;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.aepvalidation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.adobe.marketing.mobile.ExperienceEvent;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * XdmValidatorTest - Schema checks on the app's own payloads, and batch cost
+ *
+ *   ./gradlew :app:testDebugUnitTest --tests '*XdmValidatorTest' -i
+ *
+ * Every test compiles the schema asset the app ships,
+ * assets/xdm/experience-event.schema.json. android.util.JsonReader is not
+ * available on the JVM, so assets are read with Gson (test only) into the
+ * same Map/List shapes JsonMaps produces.
+ */
+public class XdmValidatorTest {
+
+    private static final String TIMESTAMP = "2024-01-01T00:00:00.000Z";
+    private static final int BATCH = 20_000;
+    private static final String ASSETS = "src/main/assets/";
+    private static final String SCHEMA_ASSET = "xdm/experience-event.schema.json";
+    private static final String TRACE_ASSET = "traces/commerce-session.jsonl";
+
+    @Test
+    public void appPayloadsAreValid() throws IOException {
+        XdmValidator validator = XdmValidator.compile(SCHEMA_ASSET, schema());
+        assertEquals(List.of(), validator.validate(EdgePayloads.basicXdm(TIMESTAMP)));
+        assertEquals(List.of(), validator.validate(EdgePayloads.commerceXdm(TIMESTAMP)));
+        // As built by load runs and the parallel pipeline test
+        assertEquals(List.of(), validator.validate(EdgePayloads.commerceXdm(TIMESTAMP, "SKU-0-1", "Product 1", 1, 9.99)));
+        assertEquals(3, validator.checkedCount());
+        assertEquals(0, validator.invalidCount());
+        assertTrue(validator.unsupportedKeywords().toString(), validator.unsupportedKeywords().isEmpty());
+    }
+
+    @Test
+    public void bundledTraceIsValid() throws IOException {
+        XdmValidator validator = XdmValidator.compile(SCHEMA_ASSET, schema());
+        int events = 0;
+        try (BufferedReader trace = Files.newBufferedReader(asset(TRACE_ASSET).toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = trace.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                @SuppressWarnings("unchecked")
+                Map<String, Object> xdm = (Map<String, Object>) readObject(JsonParser.parseString(line)).get("xdm");
+                assertEquals(line, List.of(), validator.validate(xdm));
+                events++;
+            }
+        }
+        assertTrue(events > 0);
+    }
+
+    @Test
+    public void misspelledFieldIsReportedWithItsPath() throws IOException {
+        XdmValidator validator = XdmValidator.compile(SCHEMA_ASSET, schema());
+        Map<String, Object> xdm = EdgePayloads.commerceXdm(TIMESTAMP);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> item = ((List<Map<String, Object>>) xdm.get("productListItems")).get(0);
+        item.put("sku", item.remove("SKU"));
+
+        List<String> errors = validator.validate(xdm);
+        assertTrue(errors.toString(), errors.stream().anyMatch(e -> e.startsWith("xdm.productListItems[0]")
+            && e.contains("SKU")));
+        assertTrue(errors.toString(), errors.stream().anyMatch(e -> e.contains("sku")));
+        assertEquals(1, validator.invalidCount());
+    }
+
+    @Test
+    public void badTimestampAndWrongTypesFail() throws IOException {
+        XdmValidator validator = XdmValidator.compile(SCHEMA_ASSET, schema());
+        assertEquals(1, validator.validate(EdgePayloads.commerceXdm("2024-01-01 00:00:00")).size());
+
+        Map<String, Object> xdm = EdgePayloads.commerceXdm(TIMESTAMP);
+        xdm.put("eventType", 42);
+        assertEquals(1, validator.validate(xdm).size());
+
+        xdm.put("eventType", "commerce.unknown");
+        assertEquals(1, validator.validate(xdm).size());
+    }
+
+    @Test
+    public void senderHandsInvalidEventsProblemsToCaller() throws IOException {
+        XdmValidator validator = XdmValidator.compile(SCHEMA_ASSET, schema());
+        FakeEdge edge = new FakeEdge(FakeEdge.Config.instant());
+        EdgeEventSender sender = new EdgeEventSender(edge, CompletableFuture.completedFuture(null),
+            EdgeEventSender.DEFAULT_BUFFER_CAPACITY);
+        sender.setValidator(validator);
+        ExperienceEvent event = new ExperienceEvent.Builder()
+            .setXdmSchema(EdgePayloads.commerceXdm("2024-01-01 00:00:00"))
+            .build();
+        List<List<String>> reported = new ArrayList<>();
+
+        assertEquals(EdgeEventSender.Result.INVALID,
+            sender.send(event, FakeEdge.onComplete(handles -> { }), reported::add));
+        assertEquals(1, reported.size());
+        assertEquals(validator.validate(event.getXdmSchema()), reported.get(0));
+        assertEquals(0, edge.sentCount());
+        edge.shutdown();
+    }
+
+    @Test
+    public void parallelBatchMatchesSequentialChecks() throws Exception {
+        XdmValidator validator = XdmValidator.compile(SCHEMA_ASSET, schema());
+        List<Map<String, Object>> payloads = new ArrayList<>(BATCH);
+        int expectedInvalid = 0;
+        for (int i = 0; i < BATCH; i++) {
+            Map<String, Object> xdm = EdgePayloads.commerceXdm(TIMESTAMP, "SKU-" + i, "Product " + i, 1, 9.99);
+            if (i % 100 == 0) {
+                xdm.put("timestamp", "yesterday");
+                expectedInvalid++;
+            }
+            payloads.add(xdm);
+        }
+
+        XdmValidator.BatchResult result = validator.validateAll(payloads.iterator());
+        System.out.println(result.format());
+
+        assertEquals(BATCH, result.events);
+        assertEquals(expectedInvalid, result.invalid);
+        // Batch checks stay out of the send-path stats
+        assertEquals(0, validator.checkedCount());
+        assertTrue(result.sampleErrors.size() <= 10);
+        assertTrue(result.threads >= 1);
+    }
+
+    private static Map<String, Object> schema() throws IOException {
+        try (Reader reader = Files.newBufferedReader(asset(SCHEMA_ASSET).toPath(), StandardCharsets.UTF_8)) {
+            return readObject(JsonParser.parseReader(reader));
+        }
+    }
+
+    private static Map<String, Object> readObject(JsonElement element) {
+        Map<String, Object> map = new HashMap<>();
+        for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+            map.put(entry.getKey(), readValue(entry.getValue()));
+        }
+        return map;
+    }
+
+    private static Object readValue(JsonElement element) {
+        if (element.isJsonObject()) {
+            return readObject(element);
+        } else if (element.isJsonArray()) {
+            List<Object> list = new ArrayList<>();
+            for (JsonElement item : element.getAsJsonArray()) {
+                list.add(readValue(item));
+            }
+            return list;
+        } else if (element.isJsonNull()) {
+            return null;
+        } else if (element.getAsJsonPrimitive().isBoolean()) {
+            return element.getAsBoolean();
+        } else if (element.getAsJsonPrimitive().isNumber()) {
+            return JsonMaps.parseNumber(element.getAsString());
+        }
+        return element.getAsString();
+    }
+
+    /**
+     * Gradle runs unit tests in the module directory; IDEs may use the root
+     */
+    private static File asset(String name) {
+        File file = new File(ASSETS + name);
+        return file.exists() ? file : new File("app/" + ASSETS + name);
+    }
+}
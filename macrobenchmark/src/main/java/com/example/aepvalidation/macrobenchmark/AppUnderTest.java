@@ -0,0 +1,50 @@
+package com.example.aepvalidation.macrobenchmark;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+/**
+ * AppUnderTest - Package, view ids and trace sections of :app, and the UI steps the benchmarks share
+ *
+ * The trace section names must match MainApplication.TRACE_ON_CREATE and
+ * MainActivity.TRACE_SEND_TAP; the test APK cannot see the app's classes.
+ */
+final class AppUnderTest {
+
+    static final String PACKAGE_NAME = "com.example.aepvalidation";
+
+    static final String TRACE_ON_CREATE = "AEP.Application.onCreate";
+    static final String TRACE_SEND_TAP = "AEP.sendEdgeEvent";
+
+    private static final String SEND_BUTTON_ID = "sendEdgeEventButton";
+    private static final String STATUS_VIEW_ID = "statusTextView";
+    private static final long UI_TIMEOUT_MS = 5_000;
+
+    private AppUnderTest() {
+    }
+
+    /**
+     * Launch MainActivity and wait until the status panel is on screen
+     */
+    static void launch(MacrobenchmarkScope scope) {
+        scope.pressHome();
+        scope.startActivityAndWait();
+        scope.getDevice().wait(Until.hasObject(By.res(PACKAGE_NAME, STATUS_VIEW_ID)), UI_TIMEOUT_MS);
+    }
+
+    /**
+     * Tap "Send Edge Event" and wait for the UI to settle
+     */
+    static void tapSend(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        UiObject2 button = device.wait(Until.findObject(By.res(PACKAGE_NAME, SEND_BUTTON_ID)), UI_TIMEOUT_MS);
+        if (button == null) {
+            throw new IllegalStateException("Send button not found: " + SEND_BUTTON_ID);
+        }
+        button.click();
+        device.waitForIdle();
+    }
+}
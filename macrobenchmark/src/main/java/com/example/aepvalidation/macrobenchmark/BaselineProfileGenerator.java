@@ -0,0 +1,48 @@
+package com.example.aepvalidation.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * BaselineProfileGenerator - Records the startup and send-tap code paths as a Baseline Profile
+ *
+ *   ./gradlew :app:generateBaselineProfile
+ *
+ * Needs an API 33+ device or emulator (or a rooted API 28+ one). The plugin
+ * copies the result to app/src/release/generated/baselineProfiles, where it
+ * is committed and packaged into release builds with the hand-written
+ * rules in app/src/main/baseline-prof.txt.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    private static final int MAX_ITERATIONS = 15;
+    private static final int STABLE_ITERATIONS = 3;
+
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(
+            AppUnderTest.PACKAGE_NAME,
+            MAX_ITERATIONS,
+            STABLE_ITERATIONS,
+            null,
+            // Also write a startup profile, which lays out startup classes in the primary dex
+            true,
+            false,
+            rule -> true,
+            scope -> {
+                AppUnderTest.launch(scope);
+                AppUnderTest.tapSend(scope);
+                return Unit.INSTANCE;
+            });
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.aepvalidation.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * StartupBenchmark - Cold, warm and hot startup, with and without the Baseline Profile
+ *
+ *   ./gradlew :macrobenchmark:connectedBenchmarkReleaseAndroidTest \
+ *       -P android.testInstrumentationRunnerArguments.androidx.benchmark.enabledRules=Macrobenchmark
+ *
+ * Each startup mode runs twice: CompilationMode.None is a fresh install with
+ * no AOT code, Partial(Require) installs the packaged profile first and fails
+ * if there is none. The gap between the two timeToInitialDisplayMs medians is
+ * what the profile buys. MainApplication.onCreate is reported separately so
+ * SDK init cost can be told apart from first-frame cost.
+ */
+@RunWith(Parameterized.class)
+public class StartupBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Parameterized.Parameters(name = "{0}-{1}")
+    public static List<Object[]> parameters() {
+        List<Object[]> params = new ArrayList<>();
+        for (StartupMode mode : StartupMode.values()) {
+            params.add(new Object[] {mode, "none"});
+            params.add(new Object[] {mode, "baselineProfile"});
+        }
+        return params;
+    }
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private final StartupMode startupMode;
+    private final String compilation;
+
+    public StartupBenchmark(StartupMode startupMode, String compilation) {
+        this.startupMode = startupMode;
+        this.compilation = compilation;
+    }
+
+    @Test
+    public void startup() {
+        CompilationMode compilationMode = "none".equals(compilation)
+            ? new CompilationMode.None()
+            : new CompilationMode.Partial(BaselineProfileMode.Require, 0);
+
+        benchmarkRule.measureRepeated(
+            AppUnderTest.PACKAGE_NAME,
+            Arrays.asList(new StartupTimingMetric(), new TraceSectionMetric(AppUnderTest.TRACE_ON_CREATE)),
+            compilationMode,
+            startupMode,
+            ITERATIONS,
+            scope -> {
+                scope.pressHome();
+                return Unit.INSTANCE;
+            },
+            scope -> {
+                AppUnderTest.launch(scope);
+                return Unit.INSTANCE;
+            });
+    }
+}
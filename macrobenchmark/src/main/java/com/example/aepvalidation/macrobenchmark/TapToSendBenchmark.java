@@ -0,0 +1,62 @@
+package com.example.aepvalidation.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import kotlin.Unit;
+
+/**
+ * TapToSendBenchmark - Main-thread cost and frames of one "Send Edge Event" tap
+ *
+ * Measures the click handler (the AEP.sendEdgeEvent trace section: payload,
+ * gate check, hand-off to the SDK) and the frames drawn until the UI is
+ * idle. The Edge round trip is not included; it is network-bound and is
+ * covered by the in-app latency tracker. The process is restarted before
+ * every iteration so EventGate never throttles or deduplicates the tap.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TapToSendBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void tapToSendNoCompilation() {
+        tapToSend(new CompilationMode.None());
+    }
+
+    @Test
+    public void tapToSendBaselineProfile() {
+        tapToSend(new CompilationMode.Partial(BaselineProfileMode.Require, 0));
+    }
+
+    private void tapToSend(CompilationMode compilationMode) {
+        benchmarkRule.measureRepeated(
+            AppUnderTest.PACKAGE_NAME,
+            Arrays.asList(new TraceSectionMetric(AppUnderTest.TRACE_SEND_TAP), new FrameTimingMetric()),
+            compilationMode,
+            StartupMode.COLD,
+            ITERATIONS,
+            scope -> {
+                AppUnderTest.launch(scope);
+                return Unit.INSTANCE;
+            },
+            scope -> {
+                AppUnderTest.tapSend(scope);
+                return Unit.INSTANCE;
+            });
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.aepvalidation.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * HotPathBenchmark - On-device timings for the per-tap work in MainActivity
+ *
+ *   ./gradlew :microbenchmark:connectedReleaseAndroidTest
+ *
+ * androidx.benchmark reports ns/op (median time) and allocations/op for each
+ * test in the Studio test output and in
+ * microbenchmark/build/outputs/connected_android_test_additional_output/.
+ * Run on a physical device with the screen on; emulators are flagged.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HotPathBenchmark {
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    // Keeps results reachable so ART cannot drop the work
+    private Object sink;
+
+    @Test
+    public void currentTimestamp() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            sink = HotPaths.currentTimestamp();
+        }
+    }
+
+    @Test
+    public void appendLogLine() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            sink = HotPaths.appendLogLine();
+        }
+    }
+
+    @Test
+    public void commercePayloadTemplate() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            sink = HotPaths.commercePayloadTemplate();
+        }
+    }
+
+    @Test
+    public void commercePayloadNestedMaps() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            sink = HotPaths.commercePayloadNestedMaps();
+        }
+    }
+
+    @Test
+    public void commercePayloadToString() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            sink = HotPaths.commercePayloadToString();
+        }
+    }
+
+    @Test
+    public void eventGateCheck() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            sink = HotPaths.eventGateCheck();
+        }
+    }
+}
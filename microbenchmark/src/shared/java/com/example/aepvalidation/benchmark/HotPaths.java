@@ -0,0 +1,156 @@
+package com.example.aepvalidation.benchmark;
+
+import com.example.aepvalidation.EdgePayloads;
+import com.example.aepvalidation.EventGate;
+import com.example.aepvalidation.LogLines;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * HotPaths - The per-tap work in MainActivity, as benchmarkable operations
+ *
+ * Shared by the device benchmarks (androidx.benchmark) and the JVM runner so
+ * both measure exactly the same code. Each operation returns its result so
+ * callers can keep it reachable and the compiler cannot drop the work.
+ */
+public final class HotPaths {
+
+    static final String TIMESTAMP = "2024-01-01T00:00:00.000Z";
+    static final String LOG_MESSAGE = "SUCCESS: Edge event with product data sent";
+
+    /**
+     * One named operation
+     */
+    public static final class Op {
+        public final String name;
+        public final Supplier<Object> body;
+
+        Op(String name, Supplier<Object> body) {
+            this.name = name;
+            this.body = body;
+        }
+    }
+
+    // Built once; toString is what AppLog.d("XDM Data: ", xdm) pays per tap
+    private static final Map<String, Object> COMMERCE_XDM = EdgePayloads.commerceXdm(TIMESTAMP);
+
+    /**
+     * Distinct commerce payloads for the gate, built on first use so only
+     * the gate is measured. With a 1 ms duplicate window a payload comes
+     * round again long after its entry expired, so every check hashes the
+     * full payload, misses the duplicate table and takes a token, which is
+     * the path every real send pays for.
+     */
+    private static final class GatePayloads {
+        static final int COUNT = 16 * 1024; // power of two
+        static final EventGate GATE = new EventGate(Collections.emptyMap(),
+            new EventGate.Limit(Integer.MAX_VALUE, 1e12), 1);
+        static final Map<String, Object> DATA = EdgePayloads.commerceCustomData();
+        static final List<Map<String, Object>> XDM = new ArrayList<>(COUNT);
+
+        static {
+            for (int i = 0; i < COUNT; i++) {
+                XDM.add(EdgePayloads.commerceXdm(TIMESTAMP, "SKU-" + i, "Product " + i, 1, 9.99));
+            }
+        }
+
+        static int next;
+    }
+
+    private HotPaths() {
+    }
+
+    /**
+     * getCurrentTimestamp(): new SimpleDateFormat + UTC TimeZone per call
+     */
+    public static Object currentTimestamp() {
+        return EdgePayloads.currentTimestamp();
+    }
+
+    /**
+     * appendLog() formatting: new SimpleDateFormat("HH:mm:ss") + concatenation per call
+     */
+    public static Object appendLogLine() {
+        return LogLines.stamp(LOG_MESSAGE);
+    }
+
+    /**
+     * onSendEdgeEventWithDataClicked() payload from the shared templates
+     */
+    public static Object commercePayloadTemplate() {
+        return new Object[] {EdgePayloads.commerceXdm(TIMESTAMP), EdgePayloads.commerceCustomData()};
+    }
+
+    /**
+     * onSendEdgeEventWithDataClicked() payload as nested HashMaps, the
+     * construction used before templates; kept as the regression baseline
+     */
+    public static Object commercePayloadNestedMaps() {
+        Map<String, Object> xdmData = new HashMap<>();
+        xdmData.put("eventType", EdgePayloads.EVENT_TYPE_PRODUCT_VIEWS);
+        xdmData.put("timestamp", TIMESTAMP);
+
+        Map<String, Object> commerce = new HashMap<>();
+        Map<String, Object> productViews = new HashMap<>();
+        productViews.put("value", 1);
+        commerce.put("productListViews", productViews);
+        xdmData.put("commerce", commerce);
+
+        Map<String, Object> productItem = new HashMap<>();
+        productItem.put("SKU", EdgePayloads.DEFAULT_SKU);
+        productItem.put("name", EdgePayloads.DEFAULT_PRODUCT_NAME);
+        productItem.put("quantity", EdgePayloads.DEFAULT_QUANTITY);
+        productItem.put("priceTotal", EdgePayloads.DEFAULT_PRICE_TOTAL);
+
+        List<Map<String, Object>> productListItems = new ArrayList<>();
+        productListItems.add(productItem);
+        xdmData.put("productListItems", productListItems);
+
+        Map<String, Object> customData = new HashMap<>();
+        Map<String, Object> appInfo = new HashMap<>();
+        appInfo.put("name", "AEPValidationApp");
+        appInfo.put("version", "1.0");
+        customData.put("app", appInfo);
+        Map<String, Object> userInfo = new HashMap<>();
+        userInfo.put("testUserId", "U12345");
+        userInfo.put("segment", "dummy_segment");
+        customData.put("user", userInfo);
+        Map<String, Object> actionInfo = new HashMap<>();
+        actionInfo.put("screen", "Main");
+        actionInfo.put("button", "Send Edge Event with Data");
+        customData.put("action", actionInfo);
+
+        return new Object[] {xdmData, customData};
+    }
+
+    /**
+     * EventGate.check on the allow path, paid by every button send
+     */
+    public static Object eventGateCheck() {
+        int i = GatePayloads.next++ & (GatePayloads.COUNT - 1);
+        return GatePayloads.GATE.check(GatePayloads.XDM.get(i), GatePayloads.DATA);
+    }
+
+    /**
+     * "XDM Data: " + xdm, as logged for every tap when debug logging is on
+     */
+    public static Object commercePayloadToString() {
+        return "XDM Data: " + COMMERCE_XDM;
+    }
+
+    public static List<Op> all() {
+        List<Op> ops = new ArrayList<>();
+        ops.add(new Op("currentTimestamp", HotPaths::currentTimestamp));
+        ops.add(new Op("appendLogLine", HotPaths::appendLogLine));
+        ops.add(new Op("commercePayloadTemplate", HotPaths::commercePayloadTemplate));
+        ops.add(new Op("commercePayloadNestedMaps", HotPaths::commercePayloadNestedMaps));
+        ops.add(new Op("commercePayloadToString", HotPaths::commercePayloadToString));
+        ops.add(new Op("eventGateCheck", HotPaths::eventGateCheck));
+        return ops;
+    }
+}
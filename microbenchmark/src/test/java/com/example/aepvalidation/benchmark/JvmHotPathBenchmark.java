@@ -0,0 +1,109 @@
+package com.example.aepvalidation.benchmark;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * JvmHotPathBenchmark - The same hot paths as HotPathBenchmark, timed on the local JVM
+ *
+ *   ./gradlew :microbenchmark:testReleaseUnitTest -i
+ *
+ * No device needed, so it can run on a Linux CI machine. Reports ns/op (best
+ * of several rounds) and allocated bytes/op from HotSpot's per-thread
+ * counter; HotSpot does not count objects, so bytes stand in for the
+ * allocation count the device run reports. Absolute numbers differ from ART,
+ * but each op is checked against an allocation budget, which catches the
+ * regressions that matter (an extra map, formatter or copy per call). The
+ * commerce payload templates must also allocate less than the nested maps
+ * they replaced.
+ */
+public class JvmHotPathBenchmark {
+
+    private static final int WARMUP = 100_000;
+    private static final int ITERATIONS = 200_000;
+    private static final int ROUNDS = 5;
+
+    // Upper bounds in bytes/op on a 64-bit HotSpot JVM with compressed oops,
+    // about 1.25x what each op allocated when the budget was set
+    // (JDK 17: 2424 / 1760 / 520 / 1760 / 2320 / 0). The gate allocates
+    // nothing per check; its budget only leaves room for an iterator that
+    // escape analysis fails to remove, well short of a copied payload.
+    private static final Map<String, Integer> ALLOCATION_BUDGET_BYTES = new HashMap<>();
+
+    static {
+        ALLOCATION_BUDGET_BYTES.put("currentTimestamp", 3000);
+        ALLOCATION_BUDGET_BYTES.put("appendLogLine", 2200);
+        ALLOCATION_BUDGET_BYTES.put("commercePayloadTemplate", 700);
+        ALLOCATION_BUDGET_BYTES.put("commercePayloadNestedMaps", 2200);
+        ALLOCATION_BUDGET_BYTES.put("commercePayloadToString", 2900);
+        ALLOCATION_BUDGET_BYTES.put("eventGateCheck", 64);
+    }
+
+    // Keeps results reachable so the JIT cannot drop the work
+    private Object sink;
+
+    @Test
+    public void hotPaths() {
+        List<HotPaths.Op> ops = HotPaths.all();
+        Map<String, Result> results = new HashMap<>();
+        StringBuilder failures = new StringBuilder();
+
+        System.out.println(String.format(Locale.US, "%-28s %10s %10s", "op", "ns/op", "B/op"));
+        for (HotPaths.Op op : ops) {
+            Result result = measure(op);
+            results.put(op.name, result);
+            System.out.println(String.format(Locale.US, "%-28s %10.1f %10.0f",
+                op.name, result.nanosPerOp, result.bytesPerOp));
+
+            Integer budget = ALLOCATION_BUDGET_BYTES.get(op.name);
+            if (budget != null && result.bytesPerOp > budget) {
+                failures.append(String.format(Locale.US, "\n%s allocates %.0f B/op, budget %d",
+                    op.name, result.bytesPerOp, budget));
+            }
+        }
+        assertTrue("Allocation budget exceeded:" + failures, failures.length() == 0);
+        assertTrue("templates should allocate less than nested HashMaps",
+            results.get("commercePayloadTemplate").bytesPerOp
+                < results.get("commercePayloadNestedMaps").bytesPerOp);
+    }
+
+    private Result measure(HotPaths.Op op) {
+        for (int i = 0; i < WARMUP; i++) {
+            sink = op.body.get();
+        }
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        double bestNanos = Double.MAX_VALUE;
+        double bytes = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink = op.body.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            bytes = (double) (threads.getThreadAllocatedBytes(threadId) - bytesBefore) / ITERATIONS;
+            bestNanos = Math.min(bestNanos, (double) elapsed / ITERATIONS);
+        }
+        return new Result(bestNanos, bytes);
+    }
+
+    private static final class Result {
+        final double nanosPerOp;
+        final double bytesPerOp;
+
+        Result(double nanosPerOp, double bytesPerOp) {
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+    }
+}